@@ -18,11 +18,15 @@
 package com.github.writethemfirst.approvals;
 
 import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.files.ApprovalFiles;
 import com.github.writethemfirst.approvals.utils.functions.*;
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
-import static com.github.writethemfirst.approvals.utils.FunctionUtils.applyCombinations;
+import static com.github.writethemfirst.approvals.utils.FunctionUtils.combinations;
 import static java.util.Arrays.asList;
 
 public class Approvals {
@@ -47,7 +51,7 @@ public class Approvals {
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
     public static void verify(final Object output) {
-        new Approver().verify(output);
+        Approver.boundToCaller().verify(output);
     }
 
     /**
@@ -67,7 +71,70 @@ public class Approvals {
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
     public static void verify(final Path output) {
-        new Approver().verify(output);
+        Approver.boundToCaller().verify(output);
+    }
+
+    /**
+     * Compares the actual output of your program (read from the function's argument) and the content of the *approved*
+     * file matching with the test method.
+     *
+     * Both the output and the *approved* file are read incrementally and compared on the fly, so large outputs never
+     * have to be fully loaded in memory. The temporary *received* file is only written in case of differences.
+     *
+     * In case of differences found in the output, the {@link Reporter} linked to this `Approvals` instance will be
+     * called ({@link Reporter#mismatch(ApprovalFiles)}).
+     *
+     * @param output a {@link Reader} providing the output of your program. It is read but not closed.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public static void verify(final Reader output) {
+        Approver.boundToCaller().verify(output);
+    }
+
+    /**
+     * Compares the actual output of your program (read from the function's argument) and the content of the *approved*
+     * file matching with the test method.
+     *
+     * The output is decoded with the default charset, and then verified like in {@link #verify(Reader)}.
+     *
+     * @param output an {@link InputStream} providing the output of your program. It is read but not closed.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public static void verify(final InputStream output) {
+        Approver.boundToCaller().verify(output);
+    }
+
+    /**
+     * Compares the actual binary output of your program (the function's argument) and the content of the *approved*
+     * file matching with the test method, byte per byte.
+     *
+     * The bytes are never decoded, so line endings matter. The temporary *received* file is only written in case of
+     * differences, and the error then describes the first different byte with an hexadecimal dump of both files.
+     *
+     * @param output the bytes produced by your program
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public static void verify(final byte[] output) {
+        Approver.boundToCaller().verify(output);
+    }
+
+    /**
+     * Compares the actual binary output of your program (the remaining bytes of the function's argument) and the
+     * content of the *approved* file matching with the test method, byte per byte, like {@link #verify(byte[])}.
+     *
+     * @param output the bytes produced by your program. The position of the buffer is left unchanged.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public static void verify(final ByteBuffer output) {
+        Approver.boundToCaller().verify(output);
     }
 
     /**
@@ -87,7 +154,7 @@ public class Approvals {
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
     public static void verifyAllFiles(final Path actualFolder) {
-        new Approver().verify(actualFolder);
+        Approver.boundToCaller().verify(actualFolder);
     }
 
     /**
@@ -105,8 +172,8 @@ public class Approvals {
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
     public static <I1> void verifyAllCombinations(final Iterable<I1> args1, final Function1<I1, ?> f) {
-        final Approver approver = new Approver();
-        approver.verify(applyCombinations(args1, f));
+        final Approver approver = Approver.boundToCaller();
+        approver.verify(combinations(args1, f));
     }
 
     /**
@@ -146,8 +213,8 @@ public class Approvals {
         final Iterable<I2> args2,
         final Function2<I1, I2, ?> f) {
 
-        final Approver approver = new Approver();
-        approver.verify(applyCombinations(args1, args2, f));
+        final Approver approver = Approver.boundToCaller();
+        approver.verify(combinations(args1, args2, f));
     }
 
     /**
@@ -195,8 +262,8 @@ public class Approvals {
         final Iterable<I3> args3,
         final Function3<I1, I2, I3, ?> f) {
 
-        final Approver approver = new Approver();
-        approver.verify(applyCombinations(args1, args2, args3, f));
+        final Approver approver = Approver.boundToCaller();
+        approver.verify(combinations(args1, args2, args3, f));
     }
 
     /**
@@ -252,8 +319,8 @@ public class Approvals {
         final Iterable<I4> args4,
         final Function4<I1, I2, I3, I4, ?> f) {
 
-        final Approver approver = new Approver();
-        approver.verify(applyCombinations(args1, args2, args3, args4, f));
+        final Approver approver = Approver.boundToCaller();
+        approver.verify(combinations(args1, args2, args3, args4, f));
     }
 
     /**
@@ -314,8 +381,8 @@ public class Approvals {
         final Iterable<I5> args5,
         final Function5<I1, I2, I3, I4, I5, ?> f) {
 
-        final Approver approver = new Approver();
-        approver.verify(applyCombinations(args1, args2, args3, args4, args5, f));
+        final Approver approver = Approver.boundToCaller();
+        approver.verify(combinations(args1, args2, args3, args4, args5, f));
     }
 
     /**
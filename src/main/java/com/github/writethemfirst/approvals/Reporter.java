@@ -18,7 +18,7 @@
 package com.github.writethemfirst.approvals;
 
 import com.github.writethemfirst.approvals.files.ApprovalFiles;
-import com.github.writethemfirst.approvals.reporters.SupportedOs;
+import com.github.writethemfirst.approvals.reporters.DefaultReporter;
 import com.github.writethemfirst.approvals.reporters.ThrowsReporter;
 
 /**
@@ -47,8 +47,10 @@ public interface Reporter {
      *
      * If no native supported diff or merge tool is found (this happens in CI for instance), it falls back to throwing
      * exceptions.
+     *
+     * The tool is only searched for when the first mismatch is reported (see {@link DefaultReporter}).
      */
-    Reporter DEFAULT = SupportedOs.osDefaultReporter().orElse(BASIC);
+    Reporter DEFAULT = new DefaultReporter();
 
     /**
      * A `Reporter` is called whenever a difference is found while comparing the output of a *Program Under Tests* and
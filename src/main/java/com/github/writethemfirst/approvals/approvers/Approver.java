@@ -20,16 +20,43 @@ package com.github.writethemfirst.approvals.approvers;
 import com.github.writethemfirst.approvals.Approvals;
 import com.github.writethemfirst.approvals.Reporter;
 import com.github.writethemfirst.approvals.files.ApprovalFiles;
+import com.github.writethemfirst.approvals.files.ApprovalSession;
 import com.github.writethemfirst.approvals.files.ApprovalFolders;
 import com.github.writethemfirst.approvals.files.MatchesAndMismatches;
+import com.github.writethemfirst.approvals.files.StreamedComparison;
+import com.github.writethemfirst.approvals.listeners.VerificationListener;
+import com.github.writethemfirst.approvals.listeners.VerificationMetrics;
+import com.github.writethemfirst.approvals.reporters.BinaryThrowsReporter;
 import com.github.writethemfirst.approvals.reporters.ThrowsReporter;
+import com.github.writethemfirst.approvals.utils.Combinations;
+import com.github.writethemfirst.approvals.utils.Combinations.CombinationsReader;
+import com.github.writethemfirst.approvals.utils.ConcatenatedReader;
+import com.github.writethemfirst.approvals.utils.PathLocks;
+import com.github.writethemfirst.approvals.utils.StackUtils.Caller;
+import com.github.writethemfirst.approvals.utils.functions.Function1;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
+import static com.github.writethemfirst.approvals.listeners.Phase.*;
 import static com.github.writethemfirst.approvals.utils.FileUtils.*;
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
+import static com.github.writethemfirst.approvals.utils.StackUtils.caller;
 import static com.github.writethemfirst.approvals.utils.StackUtils.callerClass;
 import static com.github.writethemfirst.approvals.utils.StackUtils.callerMethod;
+import static com.github.writethemfirst.approvals.utils.StringUtils.concat;
+import static java.lang.String.format;
+import static java.nio.charset.Charset.defaultCharset;
 import static java.nio.file.Paths.get;
 import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.joining;
@@ -63,24 +90,65 @@ import static java.util.stream.Collectors.joining;
  * @see Reporter
  */
 public class Approver {
+    /**
+     * Folders computed by {@link #folderForClass(String)}, cached since they only depend on the test class name.
+     */
+    private static final Map<String, Path> FOLDERS_FOR_CLASSES = new ConcurrentHashMap<>();
+    private static final String UNKNOWN_METHOD = "unknown_method";
+
     private final String testClass;
     private final Path folder;
     private final Reporter reporter;
     private final String customFileName;
     private final String customExtension;
     private final String header;
+    private final boolean binary;
 
     /**
      * Standard approvals, with default {@link Reporter} and file name detected from the test class used to apply the
      * constructor and the test method used to apply a {@link #verify(Object)} method.
+     *
+     * Both are taken from the {@link ApprovalSession} bound to the current thread if any (like with the JUnit 5
+     * `ApprovalsExtension`), rather than searched for in the stack.
      */
     public Approver() {
-        this(Reporter.DEFAULT,
-            null,
-            "",
-            folderForClass(callerClass(Approver.class, Approvals.class)),
-            callerClass(Approver.class, Approvals.class),
-            "");
+        this(testClass(), null);
+    }
+
+    /**
+     * Returns the test class of the session bound to the current thread, or else the caller class (which must be
+     * searched for from a method of this class, without any lambda in between).
+     */
+    private static String testClass() {
+        final Optional<ApprovalSession> session = ApprovalSession.current();
+        return session.isPresent() ? session.get().testClass : callerClass(Approver.class, Approvals.class);
+    }
+
+    /**
+     * Standard approvals, with default {@link Reporter} and file name detected from the test class and test method
+     * calling that method.
+     *
+     * Both the test class and the test method are resolved from a single walk of the stack, right away. That means the
+     * returned Approver should only be used from the method which created it (like the static methods of {@link
+     * Approvals} do). Use {@link #Approver()} if the Approver is to be shared by several test methods.
+     *
+     * Within an {@link ApprovalSession}, the stack isn't walked at all: the test class and method are the ones of the
+     * session.
+     *
+     * @return an Approver bound to the calling test method
+     */
+    public static Approver boundToCaller() {
+        final Optional<ApprovalSession> session = ApprovalSession.current();
+        if (session.isPresent()) {
+            final String testClass = session.get().testClass;
+            return new Approver(testClass, ApprovalSession.currentMethod(testClass).orElse(UNKNOWN_METHOD));
+        }
+        final Caller caller = caller(Approver.class, Approvals.class);
+        return new Approver(caller.className, caller.methodName().orElse(UNKNOWN_METHOD));
+    }
+
+    private Approver(final String testClass, final String customFileName) {
+        this(Reporter.DEFAULT, customFileName, "", folderForClass(testClass), testClass, "", false);
     }
 
     /**
@@ -92,7 +160,8 @@ public class Approver {
         final String customExtension,
         final Path folder,
         final String testClass,
-        final String header) {
+        final String header,
+        final boolean binary) {
 
         this.reporter = reporter;
         this.customFileName = customFileName;
@@ -100,12 +169,25 @@ public class Approver {
         this.testClass = testClass;
         this.folder = folder;
         this.header = header;
+        this.binary = binary;
     }
 
     public static boolean isAutoApproving() {
         return "true".equals(System.getProperty("AUTO_APPROVE"));
     }
 
+    /**
+     * Opens an {@link ApprovalSession} for the tests of a class, holding the approval files in the folder used by the
+     * Approvers testing that class.
+     *
+     * @param testClass The test class
+     * @return the session, which must be bound to the threads running the tests (see {@link
+     * ApprovalSession#bind(String)}) and flushed after them (see {@link ApprovalSession#flush()})
+     */
+    public static ApprovalSession session(final Class<?> testClass) {
+        return new ApprovalSession(testClass.getName(), folderForClass(testClass.getName()));
+    }
+
     /**
      * Computes and returns the Path to the folder to be used for storing the *approved* and *received* files linked to
      * the `testClass` instance.
@@ -118,6 +200,10 @@ public class Approver {
      * *approved* files.
      */
     private static Path folderForClass(final String qualifiedClassName) {
+        return FOLDERS_FOR_CLASSES.computeIfAbsent(qualifiedClassName, Approver::computeFolderForClass);
+    }
+
+    private static Path computeFolderForClass(final String qualifiedClassName) {
         final String[] elements = qualifiedClassName.split("\\.");
         final String[] packageElements = stream(elements).limit(elements.length - 1).toArray(String[]::new);
         final Path packageResourcesPath = get("src/test/resources/", packageElements);
@@ -131,7 +217,7 @@ public class Approver {
      * @return a copy of this Approver
      */
     public Approver reportTo(final Reporter reporter) {
-        return new Approver(reporter, customFileName, customExtension, folder, testClass, header);
+        return new Approver(reporter, customFileName, customExtension, folder, testClass, header, binary);
     }
 
     /**
@@ -140,7 +226,7 @@ public class Approver {
      * @return a copy of this Approver
      */
     public Approver writeTo(final String customFileName) {
-        return new Approver(reporter, customFileName, customExtension, folder, testClass, header);
+        return new Approver(reporter, customFileName, customExtension, folder, testClass, header, binary);
     }
 
     /**
@@ -149,7 +235,7 @@ public class Approver {
      * @return a copy of this Approver
      */
     public Approver testing(final Class<?> testClass) {
-        return new Approver(reporter, customFileName, customExtension, folderForClass(testClass.getName()), testClass.getName(), header);
+        return new Approver(reporter, customFileName, customExtension, folderForClass(testClass.getName()), testClass.getName(), header, binary);
     }
 
     /**
@@ -158,7 +244,18 @@ public class Approver {
      * @return a copy of this Approver
      */
     public Approver writeToFolder(final String folder) {
-        return new Approver(reporter, customFileName, customExtension, Paths.get(folder), testClass, header);
+        return new Approver(reporter, customFileName, customExtension, Paths.get(folder), testClass, header, binary);
+    }
+
+    /**
+     * Specifies that the files verified by {@link #verify(Path)} (or the files of the verified folder) should be
+     * compared byte per byte, without being decoded: line endings matter, and mismatches are described by an
+     * hexadecimal dump around the first different byte (see {@link BinaryThrowsReporter}).
+     *
+     * @return a copy of this Approver
+     */
+    public Approver binary() {
+        return new Approver(reporter, customFileName, customExtension, folder, testClass, header, true);
     }
 
     /**
@@ -177,7 +274,7 @@ public class Approver {
     }
 
     private Approver header(final String headerWithLineFeed) {
-        return new Approver(reporter, customFileName, customExtension, folder, testClass, headerWithLineFeed);
+        return new Approver(reporter, customFileName, customExtension, folder, testClass, headerWithLineFeed, binary);
     }
 
     /**
@@ -197,25 +294,293 @@ public class Approver {
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
     public void verify(final Object output) {
-        final ApprovalFiles approvalFiles = approvedAndReceivedPaths();
-        final String expected = header + output;
-        verifyImpl(approvalFiles, expected);
+        verify(output instanceof CharSequence ? (CharSequence) output : String.valueOf(output));
     }
 
-    private void verifyImpl(final ApprovalFiles approvalFiles, final String expected) {
+    /**
+     * Compares the actual output of your program (the function's argument) and the content of the *approved* file
+     * matching with the test method.
+     *
+     * It behaves like {@link #verify(Object)}, but the output is never copied: the *approved* file is read
+     * incrementally and compared on the fly with the output, and the *received* file is only written if they differ.
+     *
+     * @param output The output of your program. It will be compared to the associated *approved* file.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public void verify(final CharSequence output) {
+        final VerificationMetrics metrics = VerificationMetrics.start(testClass);
+        final ApprovalFiles approvalFiles = metrics.time(NAME_RESOLUTION, this::approvedAndReceivedPaths);
+        final CharSequence expected = header.isEmpty() ? output : concat(header, output);
+        verifyImpl(approvalFiles, expected, metrics);
+    }
+
+    /**
+     * Compares the actual output of your program (read from the function's argument) and the content of the *approved*
+     * file matching with the test method.
+     *
+     * The output and the *approved* file are both read incrementally and compared on the fly, so none of them is ever
+     * fully loaded in memory, and nothing is written if they match. That happens before taking the lock of the
+     * *approved* file (see {@link PathLocks}), which is only held to check that the *approved* file didn't change in
+     * the meantime, and to write the *received* file if they differ. Since the output can only be read once, it is then
+     * spilled to a temporary file from the first difference: the *received* file holds the matching part of the
+     * *approved* file followed by the rest of the output, with normalized line endings.
+     *
+     * In case of differences found in the output, the {@link Reporter} linked to this `Approvals` instance will be
+     * called ({@link Reporter#mismatch(ApprovalFiles)} ).
+     *
+     * @param output A {@link Reader} providing the output of your program. It is read until its end (or until the first
+     *               difference if there is no need to write the *received* file), but it is not closed.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public void verify(final Reader output) {
+        verify(output, () -> {
+        });
+    }
+
+    private void verify(final Reader output, final Runnable onDifference) {
+        final VerificationMetrics metrics = VerificationMetrics.start(testClass);
+        final ApprovalFiles approvalFiles = metrics.time(NAME_RESOLUTION, this::approvedAndReceivedPaths);
+        final Reader expected = header.isEmpty() ? output : new ConcatenatedReader(new StringReader(header), output);
         if (isAutoApproving()) {
-            write(expected, approvalFiles.approved);
+            // the output is evaluated before taking the lock, which is only held to replace the approved file
+            final Path evaluated = metrics.time(RECEIVED_WRITE, () -> approvalFiles.writeTemporaryApproved(expected));
+            locking(approvalFiles.approved, () -> {
+                ApprovalSession.cancel(approvalFiles.received);
+                ApprovalSession.cancel(approvalFiles.approved);
+                metrics.time(RECEIVED_WRITE, () -> approvalFiles.moveToApproved(evaluated));
+                metrics.written(approvalFiles.approved);
+                metrics.time(CLEANUP, () -> ApprovalSession.remove(approvalFiles.approved, approvalFiles.received));
+            });
+            report(approvalFiles, true, metrics, new ThrowsReporter());
+            return;
+        }
+        // the output is compared before taking the lock, which is only held to confirm the result of the comparison
+        final StreamedComparison comparison =
+            metrics.time(COMPARISON, () -> approvalFiles.compare(expected, onDifference));
+        final boolean matches;
+        try {
+            matches = locking(approvalFiles.approved, () -> {
+                ApprovalSession.cancel(approvalFiles.received);
+                if (!metrics.time(COMPARISON, () -> approvalFiles.hasApprovedOrWriteReceived(comparison))) {
+                    metrics.read(approvalFiles.approved);
+                    metrics.written(approvalFiles.received);
+                    approvalFiles.createEmptyApprovedFileIfNeeded();
+                    return false;
+                }
+                metrics.read(approvalFiles.approved);
+                metrics.time(CLEANUP, () -> ApprovalSession.remove(approvalFiles.approved, approvalFiles.received));
+                return true;
+            });
+        } finally {
+            comparison.discard();
         }
-        if (approvalFiles.hasApproved(expected)) {
-            silentRemove(approvalFiles.received);
+        report(approvalFiles, matches, metrics, new ThrowsReporter());
+    }
+
+    /**
+     * Compares the actual output of your program (read from the function's argument) and the content of the *approved*
+     * file matching with the test method.
+     *
+     * The output is decoded with the default charset, and then verified like in {@link #verify(Reader)}.
+     *
+     * @param output An {@link InputStream} providing the output of your program. It is read until its end (or until the
+     *               first difference if there is no need to write the *received* file), but it is not closed.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public void verify(final InputStream output) {
+        verify(new InputStreamReader(output, defaultCharset()));
+    }
+
+    /**
+     * Compares the actual binary output of your program (the function's argument) and the content of the *approved*
+     * file matching with the test method, byte per byte.
+     *
+     * It behaves like {@link #verify(ByteBuffer)}.
+     *
+     * @param output The bytes produced by your program. They will be compared to the associated *approved* file.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public void verify(final byte[] output) {
+        verify(ByteBuffer.wrap(output));
+    }
+
+    /**
+     * Compares the actual binary output of your program (the remaining bytes of the function's argument) and the
+     * content of the *approved* file matching with the test method, byte per byte.
+     *
+     * The bytes are never decoded, so line endings matter. The *approved* file is mapped in memory rather than read,
+     * and the *received* file is only written in case of differences.
+     *
+     * In case of differences found in the output, the {@link Reporter} linked to this `Approvals` instance will be
+     * called ({@link Reporter#mismatch(ApprovalFiles)}), and an {@link AssertionError} describing the first different
+     * byte will be thrown (see {@link BinaryThrowsReporter}).
+     *
+     * @param output The bytes produced by your program. The position of the buffer is left unchanged.
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public void verify(final ByteBuffer output) {
+        final VerificationMetrics metrics = VerificationMetrics.start(testClass);
+        verifyImpl(metrics.time(NAME_RESOLUTION, this::approvedAndReceivedPaths), output, metrics);
+    }
+
+    /**
+     * Compares the results of your program for all the provided combinations of arguments (see {@link
+     * com.github.writethemfirst.approvals.utils.FunctionUtils#combinations(Iterable, Function1)}) and the content of
+     * the *approved* file matching with the test method.
+     *
+     * By default, the combinations are streamed (see {@link Combinations#stream()}) and verified like in {@link
+     * #verify(Reader)}: the results are compared row by row with the *approved* file while the combinations are being
+     * evaluated, and are never all held in memory.
+     *
+     * If the `FAIL_FAST_COMBINATIONS` system property is set to a number of rows, the evaluation stops that number of
+     * rows after the first difference: the *received* file then ends with a line stating how many combinations were
+     * not evaluated. The combinations are then rendered one at a time (whatever the `COMBINATIONS_BUFFER_SIZE`), so
+     * that none of them is evaluated beyond those rows.
+     *
+     * If the `PARALLEL_COMBINATIONS` system property is set to `true`, all the combinations are evaluated in parallel
+     * (using the {@link ForkJoinPool#commonPool()}) and then verified like in {@link #verify(Object)}.
+     *
+     * @param combinations The combinations of arguments, along with the function of your program to apply to them
+     * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
+     *                          framework like JUnit
+     * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
+     */
+    public void verify(final Combinations combinations) {
+        if ("true".equals(System.getProperty("PARALLEL_COMBINATIONS"))) {
+            verify(combinations.render(ForkJoinPool.commonPool()));
         } else {
-            if (!approvalFiles.hasReceived(expected)) {
-                write(expected, approvalFiles.received);
+            final Integer failFastRows = Integer.getInteger("FAIL_FAST_COMBINATIONS");
+            final CombinationsReader rows = failFastRows == null ? combinations.stream() : combinations.stream(1);
+            verify(rows, () -> {
+                if (failFastRows != null) {
+                    rows.stopAfter(failFastRows);
+                }
+            });
+        }
+    }
+
+    /**
+     * Compares the output with the *approved* file, and writes the *received* file in case of differences.
+     *
+     * The files are only read and written while holding the lock of the *approved* file (see {@link PathLocks}), so
+     * that concurrent verifications of the same files don't interfere. The mismatch is reported after the lock is
+     * released, since reporters may wait for the user.
+     *
+     * Within an {@link ApprovalSession}, removing the *received* file is postponed until the end of the session.
+     */
+    private void verifyImpl(final ApprovalFiles approvalFiles, final CharSequence expected,
+                            final VerificationMetrics metrics) {
+        if (metrics.isActive()) {
+            metrics.output(expected.length());
+        }
+        final boolean matches = locking(approvalFiles.approved, () -> {
+            ApprovalSession.cancel(approvalFiles.received);
+            if (isAutoApproving()) {
+                ApprovalSession.cancel(approvalFiles.approved);
+                metrics.time(RECEIVED_WRITE, () -> approvalFiles.writeApproved(expected));
+                metrics.written(approvalFiles.approved);
+            }
+            if (approvalFiles.hasApproved(expected, metrics)) {
+                metrics.time(CLEANUP, () -> ApprovalSession.remove(approvalFiles.approved, approvalFiles.received));
+                return true;
+            }
+            metrics.time(RECEIVED_WRITE, () -> {
+                if (!approvalFiles.hasReceived(expected)) {
+                    approvalFiles.writeReceived(expected);
+                }
+                approvalFiles.createEmptyApprovedFileIfNeeded();
+            });
+            metrics.written(approvalFiles.received);
+            return false;
+        });
+        report(approvalFiles, matches, metrics, new ThrowsReporter());
+    }
+
+    private void verifyImpl(final ApprovalFiles approvalFiles, final ByteBuffer expected,
+                            final VerificationMetrics metrics) {
+        metrics.output(expected.remaining());
+        final boolean matches = locking(approvalFiles.approved, () -> {
+            ApprovalSession.cancel(approvalFiles.received);
+            if (isAutoApproving()) {
+                ApprovalSession.cancel(approvalFiles.approved);
+                metrics.time(RECEIVED_WRITE, () -> approvalFiles.writeApproved(expected));
+                metrics.written(approvalFiles.approved);
             }
-            approvalFiles.createEmptyApprovedFileIfNeeded();
-            reporter.mismatch(approvalFiles);
-            new ThrowsReporter().mismatch(approvalFiles);
+            final boolean sameBytes = metrics.time(COMPARISON, () -> approvalFiles.hasApproved(expected));
+            metrics.read(approvalFiles.approved);
+            if (sameBytes) {
+                metrics.time(CLEANUP, () -> ApprovalSession.remove(approvalFiles.approved, approvalFiles.received));
+                return true;
+            }
+            metrics.time(RECEIVED_WRITE, () -> {
+                if (!approvalFiles.hasReceived(expected)) {
+                    approvalFiles.writeReceived(expected);
+                }
+                approvalFiles.createEmptyApprovedFileIfNeeded();
+            });
+            metrics.written(approvalFiles.received);
+            return false;
+        });
+        report(approvalFiles, matches, metrics, new BinaryThrowsReporter());
+    }
+
+    /**
+     * Verifies the bytes of a file without ever loading it: it is compared window by window and copied as it is, so
+     * that it can have any size.
+     */
+    private void verifyImpl(final ApprovalFiles approvalFiles, final Path output, final VerificationMetrics metrics) {
+        if (metrics.isActive()) {
+            metrics.output(output.toFile().length());
         }
+        final boolean matches = locking(approvalFiles.approved, () -> {
+            ApprovalSession.cancel(approvalFiles.received);
+            if (isAutoApproving()) {
+                ApprovalSession.cancel(approvalFiles.approved);
+                metrics.time(RECEIVED_WRITE, () -> approvalFiles.copyToApproved(output));
+                metrics.written(approvalFiles.approved);
+            }
+            final boolean sameBytes = metrics.time(COMPARISON, () -> approvalFiles.hasApprovedBytesOf(output));
+            metrics.read(approvalFiles.approved);
+            if (sameBytes) {
+                metrics.time(CLEANUP, () -> ApprovalSession.remove(approvalFiles.approved, approvalFiles.received));
+                return true;
+            }
+            metrics.time(RECEIVED_WRITE, () -> {
+                approvalFiles.copyToReceived(output);
+                approvalFiles.createEmptyApprovedFileIfNeeded();
+            });
+            metrics.written(approvalFiles.received);
+            return false;
+        });
+        report(approvalFiles, matches, metrics, new BinaryThrowsReporter());
+    }
+
+    /**
+     * Reports a mismatch (if any) to the reporter of this Approver, notifies the {@link VerificationListener}s, and
+     * then fails with the `throwsReporter`.
+     */
+    private void report(final ApprovalFiles approvalFiles, final boolean matches, final VerificationMetrics metrics,
+                        final Reporter throwsReporter) {
+        if (matches) {
+            metrics.finish(approvalFiles.approved, true);
+            return;
+        }
+        try {
+            metrics.time(REPORT, () -> reporter.mismatch(approvalFiles));
+        } finally {
+            metrics.finish(approvalFiles.approved, false);
+        }
+        throwsReporter.mismatch(approvalFiles);
     }
 
     /**
@@ -228,6 +593,9 @@ public class Approver {
      * In case of differences found in the output, the {@link Reporter} linked to this `Approvals` instance will be
      * called ({@link Reporter#mismatch(ApprovalFiles)} ).
      *
+     * If this Approver is {@link #binary()}, the files are compared byte per byte, like in {@link #verify(ByteBuffer)},
+     * but `output` is never loaded in memory: it is compared window by window and copied as it is, whatever its size.
+     *
      * @param output a {@link Path} containing the output of your program. It will be compared to the associated
      *               *approved* file.
      * @throws AssertionError   if the {@link Reporter} implementation relies on standard assertions provided by a
@@ -235,12 +603,14 @@ public class Approver {
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
     public void verify(final Path output) {
+        final VerificationMetrics metrics = VerificationMetrics.start(testClass);
         if (output.toFile().isDirectory()) {
-            final ApprovalFolders approvalFolders = approvedAndReceivedPathsForFolder();
-            approvalFolders.prepareFolders(output);
-            verifyFolderContent(approvalFolders);
+            verifyFolderContent(metrics.time(NAME_RESOLUTION, () -> approvedAndReceivedPathsForFolder()), output, metrics);
+        } else if (binary) {
+            verifyImpl(metrics.time(NAME_RESOLUTION, () -> approvedAndReceivedPathsForFolder(output)), output, metrics);
         } else {
-            verifyImpl(approvedAndReceivedPathsForFolder(output), silentRead(output));
+            verifyImpl(metrics.time(NAME_RESOLUTION, () -> approvedAndReceivedPathsForFolder(output)), silentRead(output),
+                metrics);
         }
     }
 
@@ -248,8 +618,8 @@ public class Approver {
      * Compares the actual output of your program (files in the folder `actualFolder`) and the content of the *approved*
      * "Master" folder matching with the test method.
      *
-     * It'll use a temporary *received* folder to copy the actual files from your program. This folder and its files
-     * will be erased in case the results are matching. Otherwise, they will be kept for you to review it.
+     * The actual files are compared in place: only the mismatched ones are copied to a *received* folder, kept for you
+     * to review it. Nothing is written in case the results are matching.
      *
      * In case of differences found in the output, the {@link Reporter} linked to this `Approvals` instance will be
      * called ({@link Reporter#mismatch(ApprovalFiles)}) for each mismatched file.
@@ -258,14 +628,30 @@ public class Approver {
      *                          framework like JUnit
      * @throws RuntimeException if the {@link Reporter} relies on executing an external command which failed
      */
-    private void verifyFolderContent(final ApprovalFolders approvalFolders) {
-        if (isAutoApproving()) {
-            approvalFolders.autoApprove();
+    private void verifyFolderContent(final ApprovalFolders approvalFolders, final Path actualFolder,
+                                     final VerificationMetrics metrics) {
+        final MatchesAndMismatches matchesAndMismatches = locking(approvalFolders.approved, () -> {
+            metrics.time(CLEANUP, () -> {
+                if (isAutoApproving()) {
+                    approvalFolders.autoApprove(actualFolder);
+                } else {
+                    approvalFolders.prepareFolders();
+                }
+            });
+            return metrics.time(COMPARISON, () -> binary
+                ? approvalFolders.binaryMatchesAndMismatches(actualFolder)
+                : approvalFolders.matchesAndMismatches(actualFolder));
+        });
+        try {
+            metrics.time(REPORT, () -> matchesAndMismatches.reportMismatches(reporter));
+        } finally {
+            metrics.finish(approvalFolders.approved, !matchesAndMismatches.hasMismatches());
+        }
+        if (binary) {
+            matchesAndMismatches.throwMismatches(new BinaryThrowsReporter());
+        } else {
+            matchesAndMismatches.throwMismatches();
         }
-        final MatchesAndMismatches matchesAndMismatches = approvalFolders.matchesAndMismatches();
-        matchesAndMismatches.cleanupReceivedFiles();
-        matchesAndMismatches.reportMismatches(reporter);
-        matchesAndMismatches.throwMismatches();
     }
 
     /**
@@ -280,7 +666,8 @@ public class Approver {
      * `unknown_method` otherwise.
      */
     private String callerMethodName() {
-        return callerMethod(testClass).orElse("unknown_method");
+        final Optional<String> sessionMethod = ApprovalSession.currentMethod(testClass);
+        return sessionMethod.isPresent() ? sessionMethod.get() : callerMethod(testClass).orElse(UNKNOWN_METHOD);
     }
 
     private ApprovalFiles approvedAndReceivedPathsForFolder(final Path output) {
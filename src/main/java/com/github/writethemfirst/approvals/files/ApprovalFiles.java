@@ -18,12 +18,30 @@
 
 package com.github.writethemfirst.approvals.files;
 
+import com.github.writethemfirst.approvals.listeners.VerificationMetrics;
+import com.github.writethemfirst.approvals.utils.BinaryUtils;
+import com.github.writethemfirst.approvals.utils.FileUtils;
+import com.github.writethemfirst.approvals.utils.NormalizedReader;
+import com.github.writethemfirst.approvals.utils.RawContent;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
+import static com.github.writethemfirst.approvals.listeners.Phase.APPROVED_READ;
+import static com.github.writethemfirst.approvals.listeners.Phase.COMPARISON;
+import static com.github.writethemfirst.approvals.utils.FileUtils.copy;
 import static com.github.writethemfirst.approvals.utils.FileUtils.createParentDirectories;
-import static com.github.writethemfirst.approvals.utils.FileUtils.silentRead;
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentReader;
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRemove;
+import static com.github.writethemfirst.approvals.utils.FileUtils.write;
+import static com.github.writethemfirst.approvals.utils.FileUtils.writeTemporary;
+import static com.github.writethemfirst.approvals.utils.NormalizedReader.END;
 import static com.github.writethemfirst.approvals.utils.StringUtils.sameContent;
 import static java.lang.String.format;
 
@@ -64,6 +82,14 @@ public class ApprovalFiles {
      */
     public final Path received;
 
+    /**
+     * Folder in which the {@link ApprovedDigests} index of the *approved* entry is stored.
+     */
+    final Path digestsFolder;
+
+    private final FileContent approvedFileContent;
+    private final FileContent receivedFileContent;
+
     /**
      * Constructs a pair of approval entries from the provided folder and method name. The path for both *approved* and
      * *received* files will be computed and used as approval files.
@@ -78,33 +104,360 @@ public class ApprovalFiles {
     }
 
     public ApprovalFiles(final Path approved, final Path received) {
+        this(approved, received, approved.toAbsolutePath().getParent());
+    }
+
+    ApprovalFiles(final Path approved, final Path received, final Path digestsFolder) {
+        this(approved, ApprovalSession.approvedContent(approved), received, digestsFolder);
+    }
+
+    private ApprovalFiles(final Path approved, final FileContent approvedFileContent, final Path received,
+                          final Path digestsFolder) {
         this.approved = approved;
         this.received = received;
+        this.digestsFolder = digestsFolder;
+        this.approvedFileContent = approvedFileContent;
+        this.receivedFileContent = new FileContent(received);
+    }
+
+    /**
+     * Returns the pair of the same *approved* file and of the provided *received* file, in which the current *received*
+     * file is copied byte per byte (if it exists). The content of the *approved* file is shared with this instance, so that the
+     * reporters don't need to read it again.
+     *
+     * @param newReceived The path to which the *received* file should be copied
+     * @return An {@link ApprovalFiles} instance containing the *approved* file and the copied *received* file
+     */
+    ApprovalFiles copyReceivedTo(final Path newReceived) {
+        if (received.equals(newReceived)) {
+            return this;
+        }
+        final ApprovalFiles pair = new ApprovalFiles(approved, approvedFileContent, newReceived, digestsFolder);
+        if (Files.isRegularFile(received)) {
+            copy(received, newReceived);
+        }
+        return pair;
     }
 
 
+    /**
+     * Returns the content of the *approved* file. It is read at most once for all the steps of a verification sharing
+     * this instance (comparison, reporters...), unless the file is modified in between.
+     */
     public String approvedContent() {
-        return silentRead(approved);
+        return approvedFileContent.read();
     }
 
+    /**
+     * Returns the content of the *received* file. It is read at most once for all the steps of a verification sharing
+     * this instance (comparison, reporters...), unless the file is modified in between, and not even once if it has
+     * been written through {@link #writeReceived(CharSequence)}.
+     */
     public String receivedContent() {
-        return silentRead(received);
+        return receivedFileContent.read();
+    }
+
+    /**
+     * Writes the *approved* file, keeping its content for the rest of the verification (unless it is big, see {@link
+     * FileContent#write(CharSequence)}).
+     */
+    public void writeApproved(final CharSequence content) {
+        approvedFileContent.write(content);
+    }
+
+    /**
+     * Writes the *received* file, keeping its content for the rest of the verification (so that reporters don't need
+     * to read it back), unless it is big (see {@link FileContent#write(CharSequence)}).
+     */
+    public void writeReceived(final CharSequence content) {
+        receivedFileContent.write(content);
+    }
+
+    /**
+     * Checks if the *approved* file has the same content as the provided one.
+     *
+     * If the {@link ApprovedDigests} index is enabled, the *approved* file isn't read at all (unless it changed since
+     * its digest was computed): only the digest of the provided content is computed. Otherwise, a small *approved* file
+     * is loaded and kept for the rest of the verification, while a big one (see {@link
+     * RawContent#exceedsThreshold(Path...)}) is read incrementally, and the comparison stops at the first difference.
+     */
+    public boolean hasApproved(final CharSequence content) {
+        return hasApproved(content, VerificationMetrics.NONE);
+    }
+
+    /**
+     * Checks if the *approved* file has the same content as the provided one, like {@link #hasApproved(CharSequence)},
+     * timing the reading of the *approved* file and the comparison.
+     */
+    public boolean hasApproved(final CharSequence content, final VerificationMetrics metrics) {
+        final Optional<String> approvedDigest = approvedDigest();
+        if (approvedDigest.isPresent()) {
+            return metrics.time(COMPARISON, () ->
+                approvedDigest.get().equals(ApprovedDigests.digest(new NormalizedReader(CharBuffer.wrap(content)))));
+        }
+        if (RawContent.exceedsThreshold(approved)) {
+            metrics.read(approved);
+            return metrics.time(COMPARISON, () -> sameStreamedContent(silentReader(approved), approved, content));
+        }
+        final long bytesRead = approvedFileContent.bytesRead();
+        final String approvedContent = metrics.time(APPROVED_READ, this::approvedContent);
+        metrics.read(approvedFileContent.bytesRead() - bytesRead);
+        return metrics.time(COMPARISON, () -> sameContent(approvedContent, content));
+    }
+
+    /**
+     * Checks if the *received* file has the same content as the provided one. Like for {@link
+     * #hasApproved(CharSequence)}, a big *received* file is read incrementally rather than loaded.
+     */
+    public boolean hasReceived(final CharSequence content) {
+        return RawContent.exceedsThreshold(received)
+            ? sameStreamedContent(silentReader(received), received, content)
+            : sameContent(receivedContent(), content);
+    }
+
+    private static boolean sameStreamedContent(final Readable fileContent, final Path file,
+                                               final CharSequence content) {
+        try (final NormalizedReader reader = new NormalizedReader(fileContent)) {
+            return reader.sameContent(new NormalizedReader(CharBuffer.wrap(content)));
+        } catch (final IOException e) {
+            throw new RuntimeException(format("Can't compare <%s> with the provided content.", file), e);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of `content` in the *approved* file, as they are.
+     */
+    public void writeApproved(final ByteBuffer content) {
+        write(content, approved);
+    }
+
+    /**
+     * Writes the remaining bytes of `content` in the *received* file, as they are.
+     */
+    public void writeReceived(final ByteBuffer content) {
+        write(content, received);
+    }
+
+    /**
+     * Checks if the *approved* file holds the same bytes as the remaining ones of `content` (line endings included).
+     * The *approved* file is read window by window, see {@link BinaryUtils#mismatch(ByteBuffer, Path)}.
+     */
+    public boolean hasApproved(final ByteBuffer content) {
+        return BinaryUtils.mismatch(content, approved) < 0;
+    }
+
+    /**
+     * Checks if the *received* file holds the same bytes as the remaining ones of `content` (line endings included).
+     */
+    public boolean hasReceived(final ByteBuffer content) {
+        return BinaryUtils.mismatch(content, received) < 0;
+    }
+
+    /**
+     * Copies the bytes of `file` in the *approved* file, as they are (the copy is skipped if they are already there).
+     */
+    public void copyToApproved(final Path file) {
+        copy(file, approved);
     }
 
-    public boolean hasApproved(String content) {
-        return sameContent(approvedContent(), content);
+    /**
+     * Copies the bytes of `file` in the *received* file, as they are (the copy is skipped if they are already there).
+     */
+    public void copyToReceived(final Path file) {
+        copy(file, received);
     }
 
-    public boolean hasReceived(String content) {
-        return sameContent(receivedContent(), content);
+    /**
+     * Checks if the *approved* file holds the same bytes as `file`. Both files are read window by window, see {@link
+     * BinaryUtils#mismatch(Path, Path)}, so that they can have any size.
+     */
+    public boolean hasApprovedBytesOf(final Path file) {
+        return BinaryUtils.mismatch(file, approved) < 0;
     }
 
 
     /**
-     * Checks if both files have the same content (by reading them and comparing the data afterwards).
+     * Checks if both files have the same content (by reading them incrementally and comparing the data on the fly).
+     *
+     * Small files are loaded in memory and kept for the rest of the verification, but big files (see {@link
+     * RawContent#exceedsThreshold(Path...)}) are never loaded: they are compared through their {@link
+     * RawContent}, so that they aren't even decoded.
      */
     boolean haveSameContent() {
-        return sameContent(approvedContent(), receivedContent());
+        final boolean big = RawContent.exceedsThreshold(approved, received);
+        final Optional<String> approvedDigest = approvedDigest();
+        if (approvedDigest.isPresent()) {
+            final NormalizedReader receivedReader = new NormalizedReader(
+                big ? silentReader(received) : CharBuffer.wrap(receivedContent()));
+            return approvedDigest.get().equals(ApprovedDigests.digest(receivedReader));
+        }
+        if (!big) {
+            return sameContent(approvedContent(), receivedContent());
+        }
+        try {
+            if (RawContent.isWorthReadingRaw(approved, received)) {
+                try (final NormalizedReader approvedContent = new NormalizedReader(new RawContent(approved));
+                     final NormalizedReader receivedContent = new NormalizedReader(new RawContent(received))) {
+                    return approvedContent.sameContent(receivedContent);
+                }
+            }
+            try (final NormalizedReader approvedContent = new NormalizedReader(approvedSource());
+                 final NormalizedReader receivedContent = new NormalizedReader(silentReader(received))) {
+                return approvedContent.sameContent(receivedContent);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(format("Can't compare <%s> and <%s>.", approved, received), e);
+        }
+    }
+
+    /**
+     * Checks if both files hold the same bytes (line endings included), without loading them in memory (see {@link
+     * BinaryUtils#mismatch(Path, Path)}).
+     */
+    boolean haveSameBytes() {
+        return BinaryUtils.mismatch(approved, received) < 0;
+    }
+
+    /**
+     * Compares the content read from `content` with the *approved* file on the fly, without holding the lock of the
+     * *approved* file, so that producing the content (which may run the code of your program) doesn't hold back the
+     * other verifications of the same files. Neither of them is ever fully loaded in memory.
+     *
+     * Nothing is written if they have the same content. Otherwise, `onDifference` is called as soon as the first
+     * difference is found, and the content is spilled to a temporary file outside the approval folders (see {@link
+     * FileUtils#writeTemporary(FileUtils.ContentWriter)}). Since `content` can only be read once, that file holds the
+     * part of the *approved* file which matched, followed by the rest of `content`, with normalized line endings and
+     * without the empty lines at its end.
+     *
+     * The result must then be confirmed while holding the lock of the *approved* file, with {@link
+     * #hasApprovedOrWriteReceived(StreamedComparison)}.
+     *
+     * @param content      The reader providing the content to compare with the *approved* file. It is read until the
+     *                     first difference, or until its end, but it is not closed.
+     * @param onDifference Called as soon as the first difference is found, before reading the rest of `content` to
+     *                     spill it (which allows to shorten that content)
+     * @return the result of the comparison, to be confirmed
+     */
+    public StreamedComparison compare(final Reader content, final Runnable onDifference) {
+        final StreamedComparison comparison = new StreamedComparison(approved);
+        final NormalizedReader actualContent = new NormalizedReader(content);
+        try (final NormalizedReader approvedContent = new NormalizedReader(approvedSource())) {
+            long matching = 0;
+            int approvedChar;
+            int actualChar;
+            do {
+                approvedChar = approvedContent.read();
+                actualChar = actualContent.read();
+                if (approvedChar != actualChar) {
+                    onDifference.run();
+                    comparison.spill(spill(matching, actualChar, actualContent));
+                    return comparison;
+                }
+                matching++;
+            } while (approvedChar != END);
+            if (approvedContent.isEmpty() != actualContent.isEmpty()) {
+                onDifference.run();
+                comparison.spill(spill(matching - 1, END, actualContent));
+            }
+            return comparison;
+        } catch (final IOException e) {
+            throw new RuntimeException(format("Can't compare <%s> with the provided content.", approved), e);
+        }
+    }
+
+    /**
+     * Confirms the result of {@link #compare(Reader, Runnable)}, which must be called while holding the lock of the
+     * *approved* file: the *received* file is written from the spilled content if it was different.
+     *
+     * If the *approved* file still has the same size and last modification time as before being compared, the result
+     * is kept without reading anything again. Otherwise, the spilled content is compared with the new *approved* file.
+     * A matching content can't be compared again since it wasn't kept, so the verification fails in that case.
+     *
+     * @param comparison The result of the comparison, whose temporary file is removed afterwards
+     * @return true if the *approved* file has the same content, false if the *received* file has been written
+     * @throws RuntimeException if the *approved* file changed while a matching content was compared with it
+     */
+    public boolean hasApprovedOrWriteReceived(final StreamedComparison comparison) {
+        try {
+            final boolean unchanged = comparison.approvedUnchanged(approved);
+            if (comparison.matched()) {
+                if (!unchanged) {
+                    throw new RuntimeException(format(
+                        "The file <%s> was modified while the provided content was compared with it.", approved));
+                }
+                return true;
+            }
+            if (!unchanged
+                && new ApprovalFiles(approved, approvedFileContent, comparison.spilled(), digestsFolder).haveSameContent()) {
+                return true;
+            }
+            copy(comparison.spilled(), received);
+            return false;
+        } finally {
+            comparison.discard();
+        }
+    }
+
+    /**
+     * Spills the content which differs from the *approved* file in a temporary file: the first `matching` characters of
+     * the *approved* file, followed by `firstDifferent` and the rest of the `actualContent`.
+     */
+    private Path spill(final long matching, final int firstDifferent, final NormalizedReader actualContent) {
+        return writeTemporary(writer -> {
+            if (matching > 0) {
+                try (final NormalizedReader approvedContent = new NormalizedReader(approvedSource())) {
+                    for (long i = 0; i < matching; i++) {
+                        writer.write(approvedContent.read());
+                    }
+                }
+            }
+            if (firstDifferent != END) {
+                writer.write(firstDifferent);
+                actualContent.transferTo(writer);
+            } else if (matching == 0 && !actualContent.isEmpty()) {
+                // the actual content is made of line endings only, which can't be told apart from an empty content
+                // once normalized
+                writer.write('\n');
+            }
+        });
+    }
+
+    /**
+     * Writes the content read from `content` in a temporary file outside the approval folders, as it is, so that it
+     * can then replace the *approved* file with {@link #moveToApproved(Path)}.
+     *
+     * @param content The reader providing the content to be written. It is read until its end, but not closed.
+     * @return The temporary file holding the content
+     */
+    public Path writeTemporaryApproved(final Reader content) {
+        return writeTemporary(content);
+    }
+
+    /**
+     * Replaces the *approved* file by a temporary file written by {@link #writeTemporaryApproved(Reader)}, which is
+     * removed afterwards.
+     */
+    public void moveToApproved(final Path temporary) {
+        try {
+            copy(temporary, approved);
+        } finally {
+            silentRemove(temporary);
+        }
+    }
+
+    /**
+     * Returns the source of the *approved* file content, which is the content kept for the verification if the file is
+     * small enough (see {@link RawContent#exceedsThreshold(Path...)}), or a reader on the file otherwise.
+     */
+    private Readable approvedSource() {
+        return RawContent.exceedsThreshold(approved) ? silentReader(approved) : CharBuffer.wrap(approvedContent());
+    }
+
+    /**
+     * Returns the digest of the *approved* file from the {@link ApprovedDigests} index, if it is enabled.
+     */
+    private Optional<String> approvedDigest() {
+        return ApprovedDigests.isEnabled() ? ApprovedDigests.of(digestsFolder).digest(approved) : Optional.empty();
     }
 
     /**
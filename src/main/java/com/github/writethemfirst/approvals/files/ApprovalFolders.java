@@ -19,16 +19,27 @@
 package com.github.writethemfirst.approvals.files;
 
 import com.github.writethemfirst.approvals.utils.FileUtils;
+import com.github.writethemfirst.approvals.utils.FlightEvent;
+import com.github.writethemfirst.approvals.utils.FlightEvents;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static com.github.writethemfirst.approvals.utils.FileUtils.*;
-import static java.util.stream.Collectors.partitioningBy;
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
+import static java.lang.String.format;
 
 /**
  * ApprovalFolders is similar to ApprovalFiles : it holds a pair of {@link Path}s, *approved* and *received*.
@@ -63,20 +74,25 @@ public class ApprovalFolders extends ApprovalFiles {
         final Path fileName = file.getFileName();
         return new ApprovalFiles(
             approved.resolve(fileName),
-            received.resolve(fileName));
+            received.resolve(fileName),
+            digestsFolder);
     }
 
     /**
-     * Creates the *approved* folder and copies files from *actual* to *received* folder.
+     * Creates the *approved* folder and removes the *received* folder left by a previous verification, if any.
+     *
+     * Nothing is written if both were already in that state: the actual files are compared in place by {@link
+     * #matchesAndMismatches(Path)}, which only copies the mismatched ones to the *received* folder.
      */
-    public void prepareFolders(final Path actualFolder) {
-        try {
-            Files.createDirectories(approved);
-            FileUtils.silentRecursiveRemove(received);
-        } catch (final IOException e) {
-            throw new RuntimeException("could not create *approved* folder " + approved, e);
-        }
-        listFiles(actualFolder).forEach(actual -> copyToFolder(actual, received));
+    public void prepareFolders() {
+        locking(approved, () -> {
+            try {
+                Files.createDirectories(approved);
+                FileUtils.silentRecursiveRemove(received);
+            } catch (final IOException e) {
+                throw new RuntimeException("could not create *approved* folder " + approved, e);
+            }
+        });
     }
 
 
@@ -85,65 +101,169 @@ public class ApprovalFolders extends ApprovalFiles {
      * are folders).
      *
      * @return the 2 lists of matches (files with same content) and mismatches (different files)
+     * @see #matchesAndMismatches(Path)
      */
     public MatchesAndMismatches matchesAndMismatches() {
-        final Map<Boolean, List<ApprovalFiles>> matchesAndMismatches = Stream
-            .concat(
-                listFiles(approved).map(this::matchApprovedFile),
-                listFiles(received).map(this::matchReceivedFile))
-            .distinct()
-            .collect(partitioningBy(ApprovalFiles::haveSameContent));
+        return matchesAndMismatches(received);
+    }
 
-        return new MatchesAndMismatches(
-            matchesAndMismatches.get(true),
-            matchesAndMismatches.get(false));
+    /**
+     * Compares the content of files in *approved* and `actualFolder` folders, without copying the actual files.
+     *
+     * Each pair of files is compared as soon as it is found while listing the folders, in a pool of threads shared by
+     * all the folder comparisons (see {@link #comparisons()}). Both lists are sorted by the relative paths of the
+     * files, so they don't depend on the order of the comparisons.
+     *
+     * The files of `actualFolder` are matched with the *approved* ones by their names only: the files of its
+     * sub-folders are expected at the root of the *approved* folder, like when the actual files were copied to the
+     * *received* folder before being compared. Only the mismatched files which exist in `actualFolder` are then copied
+     * to the root of the *received* folder, so that they can be reviewed: a verification in which all the files match
+     * writes nothing.
+     *
+     * @param actualFolder The folder holding the actual output of the program
+     * @return the 2 lists of matches (files with same content) and mismatches (different files), as pairs of
+     * *approved* and *received* files
+     */
+    public MatchesAndMismatches matchesAndMismatches(final Path actualFolder) {
+        return matchesAndMismatches(actualFolder, ApprovalFiles::haveSameContent);
     }
 
     /**
-     * Completely overrides the approved folder with the content from the received folder.
+     * Compares the bytes of files in *approved* and `actualFolder` folders, like {@link #matchesAndMismatches(Path)}
+     * but without decoding them: line endings matter, and files are mapped rather than read (see {@link
+     * com.github.writethemfirst.approvals.utils.BinaryUtils#mismatch(Path, Path)}).
+     *
+     * @param actualFolder The folder holding the actual output of the program
+     * @return the 2 lists of matches (files with same bytes) and mismatches (different files), as pairs of *approved*
+     * and *received* files
      */
-    public void autoApprove() {
-        silentRecursiveRemove(approved);
-        copy(received, approved);
+    public MatchesAndMismatches binaryMatchesAndMismatches(final Path actualFolder) {
+        return matchesAndMismatches(actualFolder, ApprovalFiles::haveSameBytes);
+    }
+
+    private MatchesAndMismatches matchesAndMismatches(final Path actualFolder,
+                                                      final Predicate<ApprovalFiles> sameContent) {
+        final FlightEvent event = FlightEvents.folderComparison();
+        final Map<Path, Comparison> comparisons = new TreeMap<>();
+        try (final Stream<Path> actualFiles = listFiles(actualFolder)) {
+            actualFiles.forEach(actualFile -> comparisons.computeIfAbsent(
+                actualFile.getFileName(),
+                fileName -> new Comparison(
+                    new ApprovalFiles(approved.resolve(fileName), actualFile, digestsFolder), sameContent)));
+        }
+        // the approved files without any actual file are compared with a received file which doesn't exist
+        submitComparisons(approved, relativePath -> resolve(relativePath, received), sameContent, comparisons);
+
+        final List<ApprovalFiles> matches = new ArrayList<>();
+        final List<ApprovalFiles> mismatches = new ArrayList<>();
+        comparisons.forEach((relativePath, comparison) -> {
+            if (comparison.sameContent.join()) {
+                matches.add(resolve(relativePath, received));
+            } else {
+                mismatches.add(comparison.files.copyReceivedTo(received.resolve(relativePath)));
+            }
+        });
+        if (event.isEnabled()) {
+            event.path(approved)
+                .approvedSize(folderSize(approved))
+                .actualSize(folderSize(actualFolder))
+                .outcome(format("%d matches, %d mismatches", matches.size(), mismatches.size()))
+                .commit();
+        }
+        return new MatchesAndMismatches(matches, mismatches);
     }
 
+    private static long folderSize(final Path folder) {
+        try (final Stream<Path> files = listFiles(folder)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private ApprovalFiles resolve(final Path relativePath, final Path receivedFolder) {
+        return new ApprovalFiles(approved.resolve(relativePath), receivedFolder.resolve(relativePath), digestsFolder);
+    }
 
     /**
-     * If approved and received are directories, this method allows to create a new {@link ApprovalFiles} object which
-     * associates to an already known *approved* file a resolved *received* file. That *received* file will be searched
-     * for in the received folder by resolving the relative path found from the *approved* file.
-     *
-     * It allows to go from a found *approved* file to a pair of both *approved* and *received* file.
-     *
-     * If approved or received are not directories (which is checked with areRegularFiles), this current instance of
-     * {@link ApprovalFiles} will be returned.
+     * Lists the files of `folder`, and submits the comparison (by `sameContent`) of each pair of files (built by
+     * `pairing` from their relative path) which isn't compared yet.
+     */
+    private void submitComparisons(final Path folder, final Function<Path, ApprovalFiles> pairing,
+                                   final Predicate<ApprovalFiles> sameContent,
+                                   final Map<Path, Comparison> comparisons) {
+        try (final Stream<Path> files = listFiles(folder)) {
+            files.forEach(file -> comparisons.computeIfAbsent(
+                folder.relativize(file),
+                relativePath -> new Comparison(pairing.apply(relativePath), sameContent)));
+        }
+    }
+
+    /**
+     * Returns the pool in which the files of the folders are compared. It is created on first use, with the number of
+     * threads configured by the `FOLDER_COMPARISON_THREADS` system property (the number of processors by default).
      *
-     * @param approvedFile The *approved* file we already know and for which we want to associate a *received* file
-     * @return An {@link ApprovalFiles} instance containing both the *approved* and matching *received* file
+     * Since it is a {@link ForkJoinPool}, idle threads steal the comparisons queued by the others.
      */
-    private ApprovalFiles matchApprovedFile(final Path approvedFile) {
-        return new ApprovalFiles(approvedFile, changeRoot(approvedFile, approved, received));
+    private static ForkJoinPool comparisons() {
+        return ComparisonsPool.INSTANCE;
+    }
+
+    /**
+     * A pair of files, along with the comparison of their contents (submitted as soon as it is created).
+     */
+    private static final class Comparison {
+        final ApprovalFiles files;
+        final ForkJoinTask<Boolean> sameContent;
+
+        Comparison(final ApprovalFiles files, final Predicate<ApprovalFiles> sameContent) {
+            this.files = files;
+            this.sameContent = comparisons().submit(() -> sameContent.test(files));
+        }
+    }
+
+    private static final class ComparisonsPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(
+            Integer.getInteger("FOLDER_COMPARISON_THREADS", Runtime.getRuntime().availableProcessors()));
     }
 
+    /**
+     * Overrides the approved folder with the content from the received folder.
+     */
+    public void autoApprove() {
+        locking(approved, () -> replaceApproved(received));
+    }
 
     /**
-     * If approved and received are directories, this method allows to create a new {@link ApprovalFiles} object which
-     * associates to an already known *received* file a resolved *approved* file. That *approved* file will be searched
-     * for in the approved folder by resolving the relative path found from the *received* file.
-     *
-     * It allows to go from a found *received* file to a pair of both *approved* and *received* file.
+     * Overrides the approved folder with the content from the `actualFolder`, and removes the *received* folder left
+     * by a previous verification, if any.
      *
-     * If approved or received are not directories (which is checked with areRegularFiles), this current instance of
-     * {@link ApprovalFiles} will be returned.
-     *
-     * @param receivedFile The *received* file we already know and for which we want to associate a *approved* file
-     * @return An {@link ApprovalFiles} instance containing both the *approved* and matching *received* file
+     * @param actualFolder The folder holding the actual output of the program
      */
-    private ApprovalFiles matchReceivedFile(final Path receivedFile) {
-        return new ApprovalFiles(changeRoot(receivedFile, received, approved), receivedFile);
+    public void autoApprove(final Path actualFolder) {
+        locking(approved, () -> {
+            silentRecursiveRemove(received);
+            replaceApproved(actualFolder);
+        });
     }
 
-    private Path changeRoot(final Path file, final Path initialRoot, final Path newRoot) {
-        return newRoot.resolve(initialRoot.relativize(file));
+    /**
+     * Makes the approved folder hold the same files as `folder`, at its root (the files of the sub-folders of `folder`
+     * being matched by their names, like in {@link #matchesAndMismatches(Path)}). Files which already have the same
+     * content are left untouched (see {@link FileUtils#copy(Path, Path)}), and only the other approved files are
+     * removed.
+     */
+    private void replaceApproved(final Path folder) {
+        final Set<Path> fileNames = new HashSet<>();
+        try (final Stream<Path> files = listFiles(folder)) {
+            files.forEach(file -> {
+                if (fileNames.add(file.getFileName())) {
+                    copyToFolder(file, approved);
+                }
+            });
+        }
+        try (final Stream<Path> approvedFiles = listFiles(approved)) {
+            approvedFiles
+                .filter(approvedFile -> !fileNames.contains(approved.relativize(approvedFile)))
+                .forEach(FileUtils::silentRemove);
+        }
     }
 }
@@ -0,0 +1,257 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import com.github.writethemfirst.approvals.utils.RawContent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRemove;
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * # ApprovalSession
+ *
+ * State shared by the verifications of the tests of a class, when they are run by a test framework which knows those
+ * tests (like the JUnit 5 `ApprovalsExtension`), instead of each verification working on its own:
+ *
+ * - the test class and the test method being run are known, so they don't need to be searched for in the stack. The
+ * method is bound to the thread running the test (see {@link #bind(String)}), so that tests can run in parallel.
+ * - the *approved* files of the class can be read in the background before the tests are run (see {@link
+ * #prefetch()}). The content read is only used if the file didn't change since then, and is dropped once the file
+ * is written during the session.
+ * - removing the *received* files of the successful verifications is postponed until the session is {@link
+ * #flush()}ed. The *received* files of the failing verifications, as well as the *approved* files when
+ * auto-approving, are still written right away, so that nothing is lost if the session ends without being flushed.
+ */
+public final class ApprovalSession {
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The name of the test class of that session.
+     */
+    public final String testClass;
+
+    /**
+     * The folder holding the approval files of the test class.
+     */
+    public final Path folder;
+
+    private final Map<Path, FileContent> prefetched = new ConcurrentHashMap<>();
+    private final Map<Path, Pending> pending = new LinkedHashMap<>();
+    private final Set<Path> written = new HashSet<>();
+
+    /**
+     * Opens a session for the tests of a class.
+     *
+     * @param testClass The name of the test class
+     * @param folder    The folder holding the approval files of the test class
+     */
+    public ApprovalSession(final String testClass, final Path folder) {
+        this.testClass = testClass;
+        this.folder = folder;
+    }
+
+    /**
+     * Starts reading the *approved* files of the session folder in the background (apart from the ones too big to be
+     * kept in memory, see {@link RawContent#exceedsThreshold(Path...)}). The files not read yet when they are
+     * verified are simply read by the verification.
+     *
+     * @return the reading of the files, completed once all of them are read
+     */
+    public CompletableFuture<Void> prefetch() {
+        return CompletableFuture.runAsync(() -> {
+            try (final Stream<Path> files = Files.list(folder)) {
+                files
+                    .filter(file -> file.getFileName().toString().endsWith(".approved"))
+                    .filter(file -> Files.isRegularFile(file) && !RawContent.exceedsThreshold(file))
+                    .forEach(file -> {
+                        final FileContent content = new FileContent(file);
+                        content.read();
+                        prefetched(file, content);
+                    });
+            } catch (final IOException | UncheckedIOException e) {
+                // nothing to prefetch (like when the folder doesn't exist yet)
+            }
+        });
+    }
+
+    /**
+     * Binds that session to the current thread, while it runs the test method `methodName`.
+     *
+     * @param methodName The name of the test method run by the current thread
+     */
+    public void bind(final String methodName) {
+        CURRENT.set(new Binding(this, methodName));
+    }
+
+    /**
+     * Unbinds the session bound to the current thread, if any.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the session bound to the current thread, if any
+     */
+    public static Optional<ApprovalSession> current() {
+        return Optional.ofNullable(CURRENT.get()).map(binding -> binding.session);
+    }
+
+    /**
+     * Returns the name of the test method run by the current thread, if it is bound to a session of `testClass`.
+     *
+     * @param testClass The name of the test class
+     * @return the name of the test method, if known
+     */
+    public static Optional<String> currentMethod(final String testClass) {
+        return Optional.ofNullable(CURRENT.get())
+            .filter(binding -> binding.session.testClass.equals(testClass))
+            .map(binding -> binding.methodName);
+    }
+
+    /**
+     * Removes a file, or postpones its removal until the end of the session bound to the current thread.
+     *
+     * @param lock The path whose lock must be held to remove the file (see {@link
+     *             com.github.writethemfirst.approvals.utils.PathLocks})
+     * @param file The file to remove
+     */
+    public static void remove(final Path lock, final Path file) {
+        if (!postpone(lock, file, () -> silentRemove(file))) {
+            silentRemove(file);
+        }
+    }
+
+    /**
+     * Cancels the postponed operation on a file (if any), since it is about to be written by the current thread. Its
+     * prefetched content (if any) is dropped as well, and won't be kept by a prefetching still in progress.
+     *
+     * @param file The file about to be written
+     */
+    public static void cancel(final Path file) {
+        current().ifPresent(session -> session.cancelPending(file));
+    }
+
+    /**
+     * Runs the postponed operations, holding the lock of each group of files at once, and forgets about the files
+     * prefetched.
+     *
+     * @throws RuntimeException if one of the operations failed, after all the others were run
+     */
+    public void flush() {
+        final List<Pending> operations;
+        synchronized (this) {
+            operations = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        prefetched.clear();
+        RuntimeException failure = null;
+        final Map<Path, List<Pending>> groups = operations.stream()
+            .collect(groupingBy(operation -> operation.lock, LinkedHashMap::new, toList()));
+        for (final Map.Entry<Path, List<Pending>> group : groups.entrySet()) {
+            try {
+                locking(group.getKey(), () -> group.getValue().forEach(operation -> operation.action.run()));
+            } catch (final RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the content of an *approved* file, prefetched by the session bound to the current thread if possible.
+     */
+    static FileContent approvedContent(final Path approved) {
+        final Binding binding = CURRENT.get();
+        final FileContent content = binding == null ? null : binding.session.prefetched.get(approved);
+        return content == null ? new FileContent(approved) : content;
+    }
+
+    private static boolean postpone(final Path lock, final Path file, final Runnable action) {
+        final Binding binding = CURRENT.get();
+        if (binding == null) {
+            return false;
+        }
+        binding.session.add(file, new Pending(lock, action));
+        return true;
+    }
+
+    private synchronized void add(final Path file, final Pending operation) {
+        cancelPending(file);
+        pending.put(file, operation);
+    }
+
+    private synchronized void cancelPending(final Path file) {
+        pending.remove(file);
+        prefetched.remove(file);
+        written.add(file);
+    }
+
+    /**
+     * Keeps the content of a prefetched file, unless the file was written since the session started: the content may
+     * have been read before that.
+     */
+    private synchronized void prefetched(final Path file, final FileContent content) {
+        if (!written.contains(file)) {
+            prefetched.putIfAbsent(file, content);
+        }
+    }
+
+    private static final class Binding {
+        final ApprovalSession session;
+        final String methodName;
+
+        Binding(final ApprovalSession session, final String methodName) {
+            this.session = session;
+            this.methodName = methodName;
+        }
+    }
+
+    private static final class Pending {
+        final Path lock;
+        final Runnable action;
+
+        Pending(final Path lock, final Runnable action) {
+            this.lock = lock;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import com.github.writethemfirst.approvals.utils.NormalizedReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRead;
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentReader;
+import static com.github.writethemfirst.approvals.utils.FileUtils.write;
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
+import static com.github.writethemfirst.approvals.utils.StringUtils.splitOnLineEndings;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * # ApprovedDigests
+ *
+ * Index of the digests of the *approved* files found in a folder (usually a `<TestClass>.files` folder), persisted in a
+ * `.approved-digests` file in that same folder.
+ *
+ * For each *approved* file, the index holds the digest of its normalized content (see {@link
+ * NormalizedReader#digest()}), along with the state of the file when the digest was computed: its size, last
+ * modification time and, where the file system provides them, its change time and file key (the inode on Unix).
+ * Comparing an output with an *approved* file then only requires to hash the output: the *approved* file is only read
+ * again if any of those changed. Since two edits within the granularity of the modification time can't be told apart,
+ * the digest of a file modified in the last {@link #RACY_MILLIS} milliseconds isn't kept, so manual edits are never
+ * missed.
+ *
+ * The digests computed by the JVM are saved in a batch when it stops (or with {@link #flush()}). The index file is then
+ * read again and updated while holding its {@link com.github.writethemfirst.approvals.utils.PathLocks lock}, so that
+ * JVMs running in parallel keep each other's digests.
+ *
+ * The index is only used if the `APPROVED_DIGESTS` system property is set to `true`.
+ */
+class ApprovedDigests {
+    static final String INDEX_FILE_NAME = ".approved-digests";
+    static final long RACY_MILLIS = 2000;
+    private static final String SEPARATOR = "\t";
+    private static final int FIELDS = 6;
+    private static final Map<Path, ApprovedDigests> INDEXES = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ApprovedDigests::flushAll, "approvals-digests-flush"));
+    }
+
+    private final Path folder;
+    private final Path indexFile;
+    private final Map<String, Entry> computed = new TreeMap<>();
+    private Map<String, Entry> entries;
+
+    private ApprovedDigests(final Path folder) {
+        this.folder = folder;
+        this.indexFile = folder.resolve(INDEX_FILE_NAME);
+    }
+
+    /**
+     * @return true if the `APPROVED_DIGESTS` system property enables the digests index
+     */
+    static boolean isEnabled() {
+        return "true".equals(System.getProperty("APPROVED_DIGESTS"));
+    }
+
+    /**
+     * Returns the index of the provided folder, shared by all the approvals of the current JVM.
+     *
+     * @param folder The folder in which the index is stored
+     * @return The digests index of that folder
+     */
+    static ApprovedDigests of(final Path folder) {
+        return INDEXES.computeIfAbsent(folder.toAbsolutePath().normalize(), ApprovedDigests::new);
+    }
+
+    /**
+     * Returns the digest of the content of the provided *approved* file. It is read from the index if the file didn't
+     * change since its digest was computed, and otherwise computed again (and kept in the index, unless the file was
+     * modified too recently).
+     *
+     * @param approvedFile An *approved* file located in the folder of that index (or in one of its sub-folders)
+     * @return The digest of the file content, or an empty value if the file can't be found
+     */
+    synchronized Optional<String> digest(final Path approvedFile) {
+        final long now = System.currentTimeMillis();
+        final FileState state;
+        try {
+            state = FileState.of(approvedFile);
+        } catch (final IOException e) {
+            return Optional.empty();
+        }
+        final String key = key(approvedFile);
+        final Entry entry = entries().get(key);
+        if (entry != null && entry.state.equals(state)) {
+            return Optional.of(entry.digest);
+        }
+        final String digest = digest(new NormalizedReader(silentReader(approvedFile)));
+        if (now - NANOSECONDS.toMillis(state.modified) > RACY_MILLIS) {
+            final Entry computedEntry = new Entry(state, digest);
+            entries.put(key, computedEntry);
+            computed.put(key, computedEntry);
+        } else {
+            entries.remove(key);
+        }
+        return Optional.of(digest);
+    }
+
+    /**
+     * Saves the digests computed since the last save in the index file, keeping the ones saved meanwhile by other JVMs.
+     *
+     * The index isn't locked while waiting for the lock of the index file, since {@link #digest(Path)} is called by
+     * verifications holding the lock of their *approved* file.
+     */
+    void flush() {
+        final Map<String, Entry> flushed;
+        synchronized (this) {
+            if (computed.isEmpty()) {
+                return;
+            }
+            flushed = new TreeMap<>(computed);
+            computed.clear();
+        }
+        locking(indexFile, () -> {
+            final Map<String, Entry> saved = read();
+            saved.putAll(flushed);
+            final StringBuilder content = new StringBuilder();
+            saved.forEach((key, entry) -> content.append(entry.state).append(entry.digest).append(SEPARATOR)
+                .append(key).append('\n'));
+            write(content, indexFile);
+        });
+    }
+
+    /**
+     * Saves the digests computed in all the indexes of the JVM.
+     */
+    static void flushAll() {
+        INDEXES.values().forEach(ApprovedDigests::flush);
+    }
+
+    /**
+     * Computes the digest of a content, and closes it.
+     */
+    static String digest(final NormalizedReader content) {
+        try (final NormalizedReader reader = content) {
+            return reader.digest();
+        } catch (final IOException e) {
+            throw new RuntimeException("Can't compute the digest of the content.", e);
+        }
+    }
+
+    private String key(final Path approvedFile) {
+        return folder.relativize(approvedFile.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    private Map<String, Entry> entries() {
+        if (entries == null) {
+            entries = read();
+        }
+        return entries;
+    }
+
+    private Map<String, Entry> read() {
+        final Map<String, Entry> saved = new TreeMap<>();
+        if (Files.exists(indexFile)) {
+            splitOnLineEndings(silentRead(indexFile)).forEach(line -> parseLine(line, saved));
+        }
+        return saved;
+    }
+
+    private void parseLine(final String line, final Map<String, Entry> saved) {
+        final String[] elements = line.split(SEPARATOR, FIELDS);
+        if (elements.length == FIELDS) {
+            try {
+                final FileState state = new FileState(Long.parseLong(elements[0]), Long.parseLong(elements[1]),
+                    Long.parseLong(elements[2]), elements[3]);
+                saved.put(elements[5], new Entry(state, elements[4]));
+            } catch (final NumberFormatException e) {
+                System.err.println(format("Ignoring invalid line <%s> in <%s>.", line, indexFile));
+            }
+        }
+    }
+
+    /**
+     * Digest of an *approved* file, along with the state of the file when it was computed.
+     */
+    private static final class Entry {
+        final FileState state;
+        final String digest;
+
+        Entry(final FileState state, final String digest) {
+            this.state = state;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Attributes of a file which change when it is edited: its size, its modification and change times (in
+     * nanoseconds), and its file key. The change time and file key are only known on some file systems.
+     */
+    private static final class FileState {
+        final long size;
+        final long modified;
+        final long changed;
+        final String fileKey;
+
+        FileState(final long size, final long modified, final long changed, final String fileKey) {
+            this.size = size;
+            this.modified = modified;
+            this.changed = changed;
+            this.fileKey = fileKey;
+        }
+
+        static FileState of(final Path file) throws IOException {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileState(
+                attributes.size(),
+                attributes.lastModifiedTime().to(NANOSECONDS),
+                changeTime(file),
+                String.valueOf(attributes.fileKey()));
+        }
+
+        private static long changeTime(final Path file) throws IOException {
+            try {
+                return ((FileTime) Files.getAttribute(file, "unix:ctime")).to(NANOSECONDS);
+            } catch (final UnsupportedOperationException | IllegalArgumentException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof FileState)) {
+                return false;
+            }
+            final FileState state = (FileState) other;
+            return size == state.size && modified == state.modified && changed == state.changed
+                && fileKey.equals(state.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(modified);
+        }
+
+        /**
+         * @return the fields of the state, each one followed by the separator of the index file
+         */
+        @Override
+        public String toString() {
+            return size + SEPARATOR + modified + SEPARATOR + changed + SEPARATOR + fileKey + SEPARATOR;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import com.github.writethemfirst.approvals.utils.FileUtils;
+import com.github.writethemfirst.approvals.utils.RawContent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRead;
+
+/**
+ * # FileContent
+ *
+ * Handle on the content of a file, shared by all the steps of a verification (comparison, reporters, error message) so
+ * that the file is read at most once.
+ *
+ * The content is kept along with the size and last modification time of the file when it was read (or written through
+ * that handle), and is only read again if the file changed since then.
+ */
+class FileContent {
+    private final Path file;
+    private String content;
+    private long size;
+    private long modified;
+    private long bytesRead;
+
+    FileContent(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the content of the file, reading it only if it changed since it was last read or written.
+     *
+     * If the file doesn't exist, an empty String is returned (like {@link FileUtils#silentRead(Path)} does), and nothing
+     * is kept.
+     */
+    synchronized String read() {
+        final BasicFileAttributes attributes = attributes();
+        if (attributes == null) {
+            content = null;
+            return silentRead(file);
+        }
+        if (content == null || size != attributes.size() || modified != attributes.lastModifiedTime().toMillis()) {
+            content = silentRead(file);
+            keep(attributes);
+            bytesRead += attributes.size();
+        }
+        return content;
+    }
+
+    /**
+     * Writes the provided content in the file, and keeps it so that the file doesn't need to be read afterwards.
+     *
+     * The content isn't kept if the file written is big (see {@link RawContent#exceedsThreshold(Path...)}), so that
+     * big outputs are never held in memory longer than needed.
+     */
+    synchronized void write(final CharSequence newContent) {
+        FileUtils.write(newContent, file);
+        final BasicFileAttributes attributes = attributes();
+        if (attributes == null || RawContent.exceedsThreshold(file)) {
+            content = null;
+        } else {
+            content = newContent.toString();
+            keep(attributes);
+        }
+    }
+
+    /**
+     * @return the number of bytes read from the file through that handle
+     */
+    synchronized long bytesRead() {
+        return bytesRead;
+    }
+
+    private void keep(final BasicFileAttributes attributes) {
+        size = attributes.size();
+        modified = attributes.lastModifiedTime().toMillis();
+    }
+
+    private BasicFileAttributes attributes() {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+}
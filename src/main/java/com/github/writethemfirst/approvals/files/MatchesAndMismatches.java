@@ -25,6 +25,7 @@ import java.util.List;
 
 import static com.github.writethemfirst.approvals.utils.FileUtils.silentRecursiveRemove;
 import static com.github.writethemfirst.approvals.utils.FileUtils.silentRemove;
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
 
 /**
  * Holds 2 lists of matches (files with same content) and mismatches (different files).
@@ -38,6 +39,13 @@ public class MatchesAndMismatches {
         this.mismatches = mismatches;
     }
 
+    /**
+     * @return true if at least one file is different
+     */
+    public boolean hasMismatches() {
+        return !mismatches.isEmpty();
+    }
+
     public void reportMismatches(final Reporter reporter) {
         if (mismatches.size() > 0) {
             final ApprovalFiles firstMismatch = mismatches.get(0);
@@ -46,14 +54,23 @@ public class MatchesAndMismatches {
     }
 
     public void throwMismatches() {
-        mismatches.forEach(mismatch -> new ThrowsReporter().mismatch(mismatch));
+        throwMismatches(new ThrowsReporter());
+    }
+
+    /**
+     * Reports each mismatch to a reporter throwing an {@link AssertionError}, like {@link ThrowsReporter} or {@link
+     * com.github.writethemfirst.approvals.reporters.BinaryThrowsReporter}: only the first mismatch is then actually
+     * reported.
+     */
+    public void throwMismatches(final Reporter throwsReporter) {
+        mismatches.forEach(throwsReporter::mismatch);
     }
 
     public void cleanupReceivedFiles() {
         matches.forEach(ar -> silentRemove(ar.received));
         if (mismatches.isEmpty() && !matches.isEmpty()) {
-            final ApprovalFiles firstMatch = matches.get(0);
-            silentRecursiveRemove(firstMatch.parent().received);
+            final ApprovalFiles folders = matches.get(0).parent();
+            locking(folders.approved, () -> silentRecursiveRemove(folders.received));
         }
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRemove;
+
+/**
+ * # StreamedComparison
+ *
+ * Result of the comparison of a streamed content with the *approved* file (see {@link ApprovalFiles#compare(java.io.Reader,
+ * Runnable)}), done without holding the lock of the *approved* file, and waiting to be confirmed while holding it (see
+ * {@link ApprovalFiles#hasApprovedOrWriteReceived(StreamedComparison)}).
+ *
+ * It keeps the size and last modification time the *approved* file had before being compared, so that the result can
+ * be confirmed without comparing anything again if the *approved* file didn't change since then. If the content was
+ * different, it also holds the temporary file in which the content was spilled.
+ */
+public final class StreamedComparison {
+    private final long approvedSize;
+    private final long approvedModified;
+    private Path spilled;
+
+    StreamedComparison(final Path approved) {
+        final BasicFileAttributes attributes = attributes(approved);
+        approvedSize = attributes == null ? -1 : attributes.size();
+        approvedModified = attributes == null ? -1 : attributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * @return true if the content was the same as the one of the *approved* file
+     */
+    public boolean matched() {
+        return spilled == null;
+    }
+
+    /**
+     * Removes the temporary file holding the content, if any. It is called once the comparison is confirmed.
+     */
+    public void discard() {
+        if (spilled != null) {
+            silentRemove(spilled);
+        }
+    }
+
+    void spill(final Path temporary) {
+        spilled = temporary;
+    }
+
+    Path spilled() {
+        return spilled;
+    }
+
+    /**
+     * @return true if the *approved* file has the same size and last modification time as before being compared
+     */
+    boolean approvedUnchanged(final Path approved) {
+        final BasicFileAttributes attributes = attributes(approved);
+        return attributes == null
+            ? approvedSize < 0
+            : approvedSize == attributes.size() && approvedModified == attributes.lastModifiedTime().toMillis();
+    }
+
+    private static BasicFileAttributes attributes(final Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+}
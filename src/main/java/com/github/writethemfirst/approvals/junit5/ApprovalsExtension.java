@@ -0,0 +1,75 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.junit5;
+
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.files.ApprovalSession;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+
+/**
+ * # ApprovalsExtension
+ *
+ * JUnit 5 extension running the verifications of a test class in an {@link ApprovalSession}:
+ *
+ * - the test class and method naming the approval files are taken from the {@link ExtensionContext}, instead of being
+ * searched for in the stack (as long as `verify` is called from the thread running the test).
+ * - the *approved* files of the class are read in the background before its tests are run.
+ * - the *received* files of successful verifications are removed, and the *approved* files written when
+ * auto-approving, after all the tests of the class have been run.
+ *
+ * It is registered by annotating the test class with `@ExtendWith(ApprovalsExtension.class)`.
+ */
+public class ApprovalsExtension implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback, AfterAllCallback {
+    private static final Namespace NAMESPACE = Namespace.create(ApprovalsExtension.class);
+
+    @Override
+    public void beforeAll(final ExtensionContext context) {
+        final Class<?> testClass = context.getRequiredTestClass();
+        final ApprovalSession session = Approver.session(testClass);
+        session.prefetch();
+        context.getStore(NAMESPACE).put(testClass, session);
+    }
+
+    @Override
+    public void beforeEach(final ExtensionContext context) {
+        final ApprovalSession session = context.getStore(NAMESPACE)
+            .get(context.getRequiredTestClass(), ApprovalSession.class);
+        if (session != null) {
+            session.bind(context.getRequiredTestMethod().getName());
+        }
+    }
+
+    @Override
+    public void afterEach(final ExtensionContext context) {
+        ApprovalSession.unbind();
+    }
+
+    @Override
+    public void afterAll(final ExtensionContext context) {
+        final ApprovalSession session = context.getStore(NAMESPACE)
+            .remove(context.getRequiredTestClass(), ApprovalSession.class);
+        if (session != null) {
+            session.flush();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * # PercentilesListener
+ *
+ * {@link VerificationListener} aggregating the metrics of the verifications per test class: the percentiles of the time
+ * spent in each {@link Phase}, and the total numbers of bytes read and written.
+ *
+ * Its {@link #report()} lists the test classes from the one whose verifications took the most time to the one whose
+ * verifications took the least time.
+ */
+public class PercentilesListener implements VerificationListener {
+    private static final double[] PERCENTILES = {50, 90, 99};
+    private final Map<String, ClassMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * @return a listener printing its report in `System.out` when the JVM stops
+     */
+    static PercentilesListener printedOnShutdown() {
+        final PercentilesListener listener = new PercentilesListener();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(listener.report()),
+            "approvals-metrics-report"));
+        return listener;
+    }
+
+    @Override
+    public void verified(final VerificationEvent event) {
+        metrics.computeIfAbsent(event.testClass, ClassMetrics::new).add(event);
+    }
+
+    /**
+     * @return the report of the verifications run so far, with a table of the percentiles (in milliseconds) per test
+     * class
+     */
+    public String report() {
+        return metrics.values().stream()
+            .sorted(Comparator.comparingLong(ClassMetrics::totalNanos).reversed())
+            .map(ClassMetrics::report)
+            .collect(joining());
+    }
+
+    private static final class ClassMetrics {
+        private final String testClass;
+        private final long[][] nanos = new long[Phase.values().length][16];
+        private int count;
+        private int mismatches;
+        private long bytesRead;
+        private long bytesWritten;
+        private long totalNanos;
+
+        ClassMetrics(final String testClass) {
+            this.testClass = testClass;
+        }
+
+        synchronized void add(final VerificationEvent event) {
+            if (count == nanos[0].length) {
+                for (int phase = 0; phase < nanos.length; phase++) {
+                    nanos[phase] = Arrays.copyOf(nanos[phase], count * 2);
+                }
+            }
+            for (final Phase phase : Phase.values()) {
+                nanos[phase.ordinal()][count] = event.nanos(phase);
+            }
+            count++;
+            mismatches += event.matched ? 0 : 1;
+            bytesRead += event.bytesRead;
+            bytesWritten += event.bytesWritten;
+            totalNanos += event.totalNanos();
+        }
+
+        synchronized long totalNanos() {
+            return totalNanos;
+        }
+
+        synchronized String report() {
+            final StringBuilder report = new StringBuilder(format(
+                "%s: %d verifications (%d mismatches) in %.3f ms, %d bytes read, %d bytes written%n",
+                testClass, count, mismatches, totalNanos / 1e6, bytesRead, bytesWritten));
+            report.append(format("  %-16s%10s%10s%10s%10s%n", "phase (ms)", "p50", "p90", "p99", "max"));
+            for (final Phase phase : Phase.values()) {
+                final long[] sorted = Arrays.copyOf(nanos[phase.ordinal()], count);
+                Arrays.sort(sorted);
+                report.append(format("  %-16s", phase));
+                for (final double percentile : PERCENTILES) {
+                    report.append(format("%10.3f", percentile(sorted, percentile) / 1e6));
+                }
+                report.append(format("%10.3f%n", sorted[count - 1] / 1e6));
+            }
+            return report.toString();
+        }
+
+        /**
+         * Nearest-rank percentile of sorted values.
+         */
+        private static long percentile(final long[] sorted, final double percentile) {
+            final int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
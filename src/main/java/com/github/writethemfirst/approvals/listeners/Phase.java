@@ -0,0 +1,51 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+/**
+ * # Phase
+ *
+ * The phases of a verification, timed for the {@link VerificationListener}s.
+ */
+public enum Phase {
+    /**
+     * Finding the names of the approval files (from the stack, or from the session).
+     */
+    NAME_RESOLUTION,
+    /**
+     * Reading the *approved* file (or files, for folders).
+     */
+    APPROVED_READ,
+    /**
+     * Comparing the output with the *approved* content. It includes reading the files when they are compared while
+     * being read (like for folders, binary files or readers).
+     */
+    COMPARISON,
+    /**
+     * Writing the *received* file in case of mismatch.
+     */
+    RECEIVED_WRITE,
+    /**
+     * Removing the *received* files of a successful verification, or preparing the folders.
+     */
+    CLEANUP,
+    /**
+     * Running the reporter of a mismatch (like opening a diff tool).
+     */
+    REPORT
+}
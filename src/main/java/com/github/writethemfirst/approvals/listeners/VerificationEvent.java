@@ -0,0 +1,81 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+import java.nio.file.Path;
+
+import static java.util.Arrays.stream;
+
+/**
+ * # VerificationEvent
+ *
+ * The metrics of a verification, given to the {@link VerificationListener}s.
+ */
+public final class VerificationEvent {
+    /**
+     * The name of the test class running the verification.
+     */
+    public final String testClass;
+
+    /**
+     * The *approved* file (or folder) verified.
+     */
+    public final Path approved;
+
+    /**
+     * Whether the output matched the *approved* file.
+     */
+    public final boolean matched;
+
+    /**
+     * The number of bytes read from the approval files.
+     */
+    public final long bytesRead;
+
+    /**
+     * The number of bytes written in the approval files.
+     */
+    public final long bytesWritten;
+
+    private final long[] nanos;
+
+    VerificationEvent(final String testClass, final Path approved, final boolean matched, final long bytesRead,
+                      final long bytesWritten, final long[] nanos) {
+        this.testClass = testClass;
+        this.approved = approved;
+        this.matched = matched;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.nanos = nanos.clone();
+    }
+
+    /**
+     * @param phase A phase of the verification
+     * @return the time spent in that phase, in nanoseconds (0 if the verification didn't go through it)
+     */
+    public long nanos(final Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return the time spent in all the phases, in nanoseconds
+     */
+    public long totalNanos() {
+        return stream(nanos).sum();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+/**
+ * # VerificationListener
+ *
+ * Service notified after each verification, with the time spent in each of its phases.
+ *
+ * The implementations are discovered with the {@link java.util.ServiceLoader}: they must have a public no-arg
+ * constructor, and be listed in a `META-INF/services/com.github.writethemfirst.approvals.listeners.VerificationListener`
+ * resource. They may be notified by several threads at the same time.
+ *
+ * The verifications aren't timed at all if there is no listener.
+ */
+@FunctionalInterface
+public interface VerificationListener {
+    /**
+     * Called once a verification has been run, before the error of a mismatch is thrown. Exceptions thrown by that
+     * method are logged and ignored.
+     *
+     * @param event The metrics of the verification
+     */
+    void verified(VerificationEvent event);
+}
@@ -0,0 +1,234 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+import com.github.writethemfirst.approvals.utils.FlightEvent;
+import com.github.writethemfirst.approvals.utils.FlightEvents;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * # VerificationMetrics
+ *
+ * Collects the metrics of a single verification (see {@link VerificationEvent}), and notifies the {@link
+ * VerificationListener}s once it is over.
+ *
+ * The listeners are loaded once with the {@link ServiceLoader}. If the `VERIFICATION_METRICS` system property is set
+ * to `true`, a {@link PercentilesListener} printing its report when the JVM stops is added to them.
+ *
+ * The verification is also recorded as a {@link FlightEvents#verification()} event of the JDK Flight Recorder, when
+ * that event is enabled. If there is no listener and the event isn't recorded, {@link #start(String)} returns {@link
+ * #NONE}, which doesn't time anything.
+ */
+public final class VerificationMetrics {
+    /**
+     * Metrics which aren't collected, used when there is no listener.
+     */
+    public static final VerificationMetrics NONE =
+        new VerificationMetrics(null, Collections.emptyList(), FlightEvents.NONE);
+
+    private final String testClass;
+    private final List<VerificationListener> listeners;
+    private final FlightEvent flightEvent;
+    private final long[] nanos = new long[Phase.values().length];
+    private long bytesRead;
+    private long bytesWritten;
+    private long outputSize = -1;
+
+    private VerificationMetrics(final String testClass, final List<VerificationListener> listeners,
+                                final FlightEvent flightEvent) {
+        this.testClass = testClass;
+        this.listeners = listeners;
+        this.flightEvent = flightEvent;
+    }
+
+    /**
+     * Starts collecting the metrics of a verification.
+     *
+     * @param testClass The name of the test class running the verification
+     * @return the metrics of the verification, or {@link #NONE} if there is no listener and no recording
+     */
+    public static VerificationMetrics start(final String testClass) {
+        final FlightEvent flightEvent = FlightEvents.verification();
+        final List<VerificationListener> listeners = Listeners.active();
+        return listeners.isEmpty() && !flightEvent.isEnabled()
+            ? NONE
+            : new VerificationMetrics(testClass, listeners, flightEvent);
+    }
+
+    /**
+     * Only use this method from test code, so that a test can listen to its own verifications without registering a
+     * listener for the whole JVM. The listener is notified of the verifications started until it is removed.
+     */
+    static void addListener(final VerificationListener listener) {
+        Listeners.ADDED.add(listener);
+    }
+
+    /**
+     * Only use this method from test code, to remove a listener added by {@link #addListener(VerificationListener)}.
+     */
+    static void removeListener(final VerificationListener listener) {
+        Listeners.ADDED.remove(listener);
+    }
+
+    /**
+     * @return true if the metrics are collected
+     */
+    public boolean isActive() {
+        return !listeners.isEmpty() || flightEvent.isEnabled();
+    }
+
+    /**
+     * Runs an action, adding its duration to a phase.
+     */
+    public <T> T time(final Phase phase, final Supplier<T> action) {
+        if (!isActive()) {
+            return action.get();
+        }
+        final long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            nanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Runs an action, adding its duration to a phase.
+     */
+    public void time(final Phase phase, final Runnable action) {
+        time(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Counts bytes read from the approval files, if the metrics are collected.
+     */
+    public void read(final long bytes) {
+        if (isActive()) {
+            bytesRead += bytes;
+        }
+    }
+
+    /**
+     * Counts the size of a file read as a whole, if the metrics are collected.
+     */
+    public void read(final Path file) {
+        if (isActive()) {
+            read(size(file));
+        }
+    }
+
+    /**
+     * Counts the size of a file written as a whole, if the metrics are collected.
+     */
+    public void written(final Path file) {
+        if (isActive()) {
+            bytesWritten += size(file);
+        }
+    }
+
+    /**
+     * Sets the size of the output verified (its length for characters), when it is known without reading it again.
+     * Otherwise, the size of the *approved* file is recorded for a matching output. Nothing is set if the metrics aren't
+     * collected, so that {@link #NONE} is never changed.
+     */
+    public void output(final long size) {
+        if (isActive()) {
+            outputSize = size;
+        }
+    }
+
+    /**
+     * Notifies the listeners that the verification is over.
+     *
+     * @param approved The *approved* file (or folder) verified
+     * @param matched  Whether the output matched the *approved* file
+     */
+    public void finish(final Path approved, final boolean matched) {
+        if (!isActive()) {
+            return;
+        }
+        if (flightEvent.isEnabled()) {
+            final long approvedSize = size(approved);
+            flightEvent.path(approved)
+                .approvedSize(approvedSize)
+                .actualSize(outputSize >= 0 ? outputSize : matched ? approvedSize : 0)
+                .outcome(matched ? "matched" : "mismatched")
+                .commit();
+        }
+        final VerificationEvent event = new VerificationEvent(testClass, approved, matched, bytesRead, bytesWritten, nanos);
+        for (final VerificationListener listener : listeners) {
+            try {
+                listener.verified(event);
+            } catch (final RuntimeException e) {
+                System.err.println(format("Verification listener %s failed", listener.getClass().getName()));
+                System.err.println(e);
+            }
+        }
+    }
+
+    private static long size(final Path file) {
+        try {
+            return Files.isRegularFile(file) ? Files.size(file) : 0;
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    private static final class Listeners {
+        static final List<VerificationListener> LOADED = load();
+        static final List<VerificationListener> ADDED = new CopyOnWriteArrayList<>();
+
+        static List<VerificationListener> active() {
+            if (ADDED.isEmpty()) {
+                return LOADED;
+            }
+            final List<VerificationListener> listeners = new ArrayList<>(LOADED);
+            listeners.addAll(ADDED);
+            return listeners;
+        }
+
+        private static List<VerificationListener> load() {
+            final List<VerificationListener> listeners = new ArrayList<>();
+            try {
+                ServiceLoader.load(VerificationListener.class).forEach(listeners::add);
+            } catch (final ServiceConfigurationError e) {
+                System.err.println("Could not load the verification listeners");
+                System.err.println(e);
+            }
+            if ("true".equals(System.getProperty("VERIFICATION_METRICS"))) {
+                listeners.add(PercentilesListener.printedOnShutdown());
+            }
+            return Collections.unmodifiableList(listeners);
+        }
+    }
+}
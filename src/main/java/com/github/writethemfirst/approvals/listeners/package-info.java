@@ -0,0 +1,29 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/**
+ * # Listeners Package
+ *
+ * Observation of the verifications run by *Approvals-Java*: {@link
+ * com.github.writethemfirst.approvals.listeners.VerificationListener}s are notified after each verification with the
+ * time spent in each of its phases, and the number of bytes read and written.
+ *
+ * The listeners are discovered with the {@link java.util.ServiceLoader}. The {@link
+ * com.github.writethemfirst.approvals.listeners.PercentilesListener} provided by that package aggregates those metrics
+ * per test class.
+ */
+package com.github.writethemfirst.approvals.listeners;
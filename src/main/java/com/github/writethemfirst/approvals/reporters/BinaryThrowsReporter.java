@@ -0,0 +1,54 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.reporters;
+
+import com.github.writethemfirst.approvals.Reporter;
+import com.github.writethemfirst.approvals.files.ApprovalFiles;
+import com.github.writethemfirst.approvals.utils.BinaryUtils;
+
+/**
+ * # BinaryThrowsReporter
+ *
+ * The {@link ThrowsReporter} of binary approvals: it throws an {@link AssertionError} in case a mismatch is found in
+ * the approval files, without decoding them.
+ *
+ * The message of the error gives the offset of the first different byte, followed by an hexadecimal dump of both files
+ * around it. The number of rows (of 16 bytes) shown before and after the first difference can be configured with the
+ * `DIFF_CONTEXT_LINES` system property (3 by default).
+ */
+public class BinaryThrowsReporter implements Reporter {
+    private static final int DEFAULT_CONTEXT_ROWS = 3;
+
+    @Override
+    public void mismatch(final ApprovalFiles files) {
+        throw new AssertionError(BinaryUtils.describeDifferences(
+            files.approved,
+            files.received,
+            Integer.getInteger("DIFF_CONTEXT_LINES", DEFAULT_CONTEXT_ROWS)));
+    }
+
+    /**
+     * A {@link BinaryThrowsReporter} is considered as always available since it has no external requirements at all.
+     *
+     * @return True. Always and forever.
+     */
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+}
@@ -21,6 +21,7 @@ import com.github.writethemfirst.approvals.Reporter;
 import com.github.writethemfirst.approvals.files.ApprovalFiles;
 import com.github.writethemfirst.approvals.utils.CommandFinder;
 import com.github.writethemfirst.approvals.utils.ExecutableCommand;
+import com.github.writethemfirst.approvals.utils.ProcessLauncher;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -30,6 +31,10 @@ import static java.util.Arrays.stream;
 
 /**
  * A reporter which delegates execution to an external command.
+ *
+ * The command is awaited before the mismatch is reported further, unless the `ASYNC_REPORTERS` system property is set
+ * to `true`: it is then launched in the background (see {@link ProcessLauncher}), so that the tests fail right away
+ * while the differences are shown.
  */
 public class CommandReporter implements Reporter {
     final String[] arguments;
@@ -68,8 +73,13 @@ public class CommandReporter implements Reporter {
 
     @Override
     public void mismatch(final ApprovalFiles files) {
+        final String[] arguments = actualArguments(files.approved.toAbsolutePath(), files.received.toAbsolutePath());
+        if ("true".equals(System.getProperty("ASYNC_REPORTERS"))) {
+            executableCommand.launch(arguments);
+            return;
+        }
         try {
-            executableCommand.execute(actualArguments(files.approved.toAbsolutePath(), files.received.toAbsolutePath()));
+            executableCommand.execute(arguments);
         } catch (final IOException e) {
             throw new RuntimeException(e);
         }
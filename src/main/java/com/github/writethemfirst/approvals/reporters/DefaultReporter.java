@@ -0,0 +1,91 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.reporters;
+
+import com.github.writethemfirst.approvals.Reporter;
+import com.github.writethemfirst.approvals.files.ApprovalFiles;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * # DefaultReporter
+ *
+ * The {@link Reporter#DEFAULT} reporter: it delegates to the reporter found for the current OS by {@link
+ * SupportedOs#osDefaultReporter()}, or to {@link Reporter#BASIC} if there is none.
+ *
+ * Finding that reporter means reading (or creating) the `~/.approvals-java` configuration and searching for the
+ * supported diff tools, so it is only done on the first mismatch reported (or the first call to {@link
+ * #isAvailable()}): verifications which pass never pay for it.
+ *
+ * If the `PREWARM_DEFAULT_REPORTER` system property is set to `true`, the reporter is rather searched for right away in
+ * a daemon thread, so that the first mismatch doesn't wait for it (or only waits for the end of that search).
+ */
+public class DefaultReporter implements Reporter {
+    private final FutureTask<Reporter> resolution;
+
+    public DefaultReporter() {
+        this(() -> SupportedOs.osDefaultReporter().orElse(BASIC),
+            "true".equals(System.getProperty("PREWARM_DEFAULT_REPORTER")));
+    }
+
+    /**
+     * Only use this constructor from test code so the resolution of the reporter can be mocked.
+     */
+    DefaultReporter(final Supplier<Reporter> resolution, final boolean prewarm) {
+        this.resolution = new FutureTask<>(resolution::get);
+        if (prewarm) {
+            final Thread thread = new Thread(this.resolution, "approvals-default-reporter");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void mismatch(final ApprovalFiles files) {
+        resolved().mismatch(files);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return resolved().isAvailable();
+    }
+
+    /**
+     * Returns the reporter found for the current OS. It is searched for by the calling thread unless it is already
+     * being searched for in another thread, in which case that search is awaited.
+     *
+     * @return the reporter found, or {@link Reporter#BASIC} if the search failed
+     */
+    private Reporter resolved() {
+        resolution.run();
+        try {
+            return resolution.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BASIC;
+        } catch (final ExecutionException e) {
+            System.err.println(format("Could not find the default reporter, falling back to %s", BASIC));
+            System.err.println(e.getCause());
+            return BASIC;
+        }
+    }
+}
@@ -91,12 +91,12 @@ public class FirstWorkingReporter implements Reporter {
 
     /**
      * Returns the first working reporter found in the provided ones. It'll only search for the first working reporter
-     * once, and will store it then.
+     * once, and will store it then (concurrent calls waiting for that search).
      *
      * @return A potential first working reporter (it'll either return the first one it founds, or empty in case none is
      * found).s
      */
-    private Optional<Reporter> firstWorking() {
+    private synchronized Optional<Reporter> firstWorking() {
         final boolean firstTime = firstWorking == null;
         if (firstTime) {
             firstWorking = findFirstAvailable();
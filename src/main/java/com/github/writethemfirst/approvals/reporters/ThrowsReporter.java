@@ -27,12 +27,23 @@ import com.github.writethemfirst.approvals.utils.StringUtils;
  * That basic reporter simply allows to throw an {@link AssertionError} in case a mismatch is found in the approval
  * files. It is always available since it's only throwing a pure Java error, and requires no particular software or
  * library to be present on the running machine.
+ *
+ * The message of the error describes the first difference, followed by a unified diff of the files. The number of
+ * unchanged lines shown around each change can be configured with the `DIFF_CONTEXT_LINES` system property (3 by
+ * default), and the diff is truncated after the number of characters configured by the `DIFF_MAX_LENGTH` system
+ * property (10000 by default), so that big files can't produce huge messages.
  */
 public class ThrowsReporter implements Reporter {
+    private static final int DEFAULT_CONTEXT_LINES = 3;
+    private static final int DEFAULT_MAX_LENGTH = 10_000;
 
     @Override
     public void mismatch(final ApprovalFiles files) {
-        throw new AssertionError(StringUtils.describeDifferences(files.approvedContent(), files.receivedContent()));
+        throw new AssertionError(StringUtils.describeDifferences(
+            files.approvedContent(),
+            files.receivedContent(),
+            Integer.getInteger("DIFF_CONTEXT_LINES", DEFAULT_CONTEXT_LINES),
+            Integer.getInteger("DIFF_MAX_LENGTH", DEFAULT_MAX_LENGTH)));
     }
 
     /**
@@ -0,0 +1,238 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.lang.String.format;
+
+/**
+ * # BinaryUtils
+ *
+ * Set of static methods to compare binary contents (byte buffers or files) and describe their differences, without
+ * decoding them.
+ *
+ * Files are never loaded in memory: they are read window by window through their channel, and only the bytes around
+ * the first difference are read to describe it. They are never mapped either, so that they can be replaced or deleted
+ * right after being compared, even on Windows (where a mapped file stays locked until its mapping is garbage collected).
+ */
+public class BinaryUtils {
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final int BYTES_PER_ROW = 16;
+
+    /**
+     * Searches for the first difference between the remaining bytes of 2 buffers. The positions of the buffers are
+     * left unchanged.
+     *
+     * @param first  The first content to be compared
+     * @param second The second content to be compared
+     * @return the offset (relative to the positions of the buffers) of the first different byte, the size of the
+     * shortest content if it is a prefix of the other one, or -1 if they have the same content
+     */
+    public static long mismatch(final ByteBuffer first, final ByteBuffer second) {
+        return ByteMismatch.mismatch(first, second);
+    }
+
+    /**
+     * Searches for the first difference between the bytes of a buffer and the content of a file. A missing file is
+     * considered as an empty one.
+     *
+     * @param first  The first content to be compared
+     * @param second The file to be compared
+     * @return the offset of the first different byte, the size of the shortest content if it is a prefix of the other
+     * one, or -1 if they have the same content
+     */
+    public static long mismatch(final ByteBuffer first, final Path second) {
+        try (final FileChannel secondChannel = openIfExists(second)) {
+            return mismatch(first.remaining(), (position, size) -> slice(first, position, size),
+                size(secondChannel), reader(secondChannel));
+        } catch (final IOException e) {
+            throw cantCompare(second, e);
+        }
+    }
+
+    /**
+     * Searches for the first difference between the contents of 2 files. A missing file is considered as an empty
+     * one.
+     *
+     * @param first  The first file to be compared
+     * @param second The second file to be compared
+     * @return the offset of the first different byte, the size of the shortest file if it is a prefix of the other one,
+     * or -1 if they have the same content
+     */
+    public static long mismatch(final Path first, final Path second) {
+        try (final FileChannel firstChannel = openIfExists(first);
+             final FileChannel secondChannel = openIfExists(second)) {
+            return mismatch(size(firstChannel), reader(firstChannel), size(secondChannel), reader(secondChannel));
+        } catch (final IOException e) {
+            throw cantCompare(first, e);
+        }
+    }
+
+    /**
+     * Describes the first difference between the contents of 2 files for an error message: its offset, followed by an
+     * hexadecimal dump of both files around that offset. A missing file is considered as an empty one.
+     *
+     * @param expected    The file holding the content expected
+     * @param actual      The file holding the content actually found
+     * @param contextRows The number of rows (of 16 bytes) to show before and after the row of the first difference
+     * @return The description of the first difference, or an empty String if the files have the same content
+     */
+    public static String describeDifferences(final Path expected, final Path actual, final int contextRows) {
+        final long offset = mismatch(expected, actual);
+        if (offset < 0) {
+            return "";
+        }
+        try (final FileChannel expectedChannel = openIfExists(expected);
+             final FileChannel actualChannel = openIfExists(actual)) {
+            final long start = Math.max(0, offset / BYTES_PER_ROW - contextRows) * BYTES_PER_ROW;
+            final long end = (offset / BYTES_PER_ROW + contextRows + 1) * BYTES_PER_ROW;
+            return format("first difference at byte#%d%n", offset)
+                + dump("--- approved", size(expectedChannel), expectedChannel, start, end, offset)
+                + dump("+++ received", size(actualChannel), actualChannel, start, end, offset);
+        } catch (final IOException e) {
+            throw cantCompare(expected, e);
+        }
+    }
+
+    /**
+     * Compares 2 contents window by window, so that files are never entirely loaded at once.
+     */
+    private static long mismatch(final long firstSize, final Window first,
+                                 final long secondSize, final Window second) throws IOException {
+        final long commonSize = Math.min(firstSize, secondSize);
+        for (long position = 0; position < commonSize; position += WINDOW_SIZE) {
+            final int size = (int) Math.min(WINDOW_SIZE, commonSize - position);
+            final int mismatch = ByteMismatch.mismatch(first.read(position, size), second.read(position, size));
+            if (mismatch >= 0) {
+                return position + mismatch;
+            }
+        }
+        return firstSize == secondSize ? -1 : commonSize;
+    }
+
+    /**
+     * Compares the remaining bytes of 2 buffers 8 at a time, and then byte per byte from the first different group of
+     * 8 bytes.
+     */
+    static int wordMismatch(final ByteBuffer first, final ByteBuffer second) {
+        final int length = Math.min(first.remaining(), second.remaining());
+        final int firstStart = first.position();
+        final int secondStart = second.position();
+        int index = 0;
+        while (index + Long.BYTES <= length
+            && first.getLong(firstStart + index) == second.getLong(secondStart + index)) {
+            index += Long.BYTES;
+        }
+        for (; index < length; index++) {
+            if (first.get(firstStart + index) != second.get(secondStart + index)) {
+                return index;
+            }
+        }
+        return first.remaining() == second.remaining() ? -1 : length;
+    }
+
+    /**
+     * Dumps the bytes of a file between `start` and `end` (or its end), in rows of 16 bytes showing their offset,
+     * their hexadecimal values and their printable ASCII characters. The byte at `offset` is pointed at below its row.
+     */
+    private static String dump(final String title, final long size, final FileChannel channel,
+                               final long start, final long end, final long offset) throws IOException {
+        final StringBuilder dump = new StringBuilder(format("%s (%d bytes)%n", title, size));
+        if (start >= size) {
+            return dump.toString();
+        }
+        final ByteBuffer bytes = ByteBuffer.allocate((int) (Math.min(end, size) - start));
+        while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) >= 0) {
+            // reads until the buffer is full
+        }
+        ((Buffer) bytes).flip();
+        for (int rowStart = 0; rowStart < bytes.limit(); rowStart += BYTES_PER_ROW) {
+            final StringBuilder hex = new StringBuilder();
+            final StringBuilder ascii = new StringBuilder();
+            for (int column = 0; column < BYTES_PER_ROW; column++) {
+                if (column == BYTES_PER_ROW / 2) {
+                    hex.append(' ');
+                }
+                final int index = rowStart + column;
+                if (index < bytes.limit()) {
+                    final int value = bytes.get(index) & 0xFF;
+                    hex.append(format("%02x ", value));
+                    ascii.append(value >= 0x20 && value < 0x7F ? (char) value : '.');
+                } else {
+                    hex.append("   ");
+                }
+            }
+            dump.append(format("%08x  %s |%s|%n", start + rowStart, hex, ascii));
+            final long column = offset - start - rowStart;
+            if (column >= 0 && column < BYTES_PER_ROW && offset < size) {
+                final int padding = 10 + 3 * (int) column + (column >= BYTES_PER_ROW / 2 ? 1 : 0);
+                dump.append(format("%" + (padding + 2) + "s%n", "^^"));
+            }
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Reads the windows of a file in a single heap buffer, reused from one window to the next.
+     */
+    private static Window reader(final FileChannel channel) {
+        final ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+        return (position, size) -> {
+            ((Buffer) window).clear();
+            ((Buffer) window).limit(size);
+            while (window.hasRemaining() && channel.read(window, position + window.position()) >= 0) {
+                // reads until the window is full
+            }
+            ((Buffer) window).flip();
+            return window;
+        };
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final long position, final int size) {
+        final ByteBuffer slice = buffer.duplicate();
+        // Buffer methods are called through Buffer, so that the classes compiled by Java 9+ still run on Java 8
+        ((Buffer) slice).position(buffer.position() + (int) position);
+        ((Buffer) slice).limit(slice.position() + size);
+        return slice.slice();
+    }
+
+    private static FileChannel openIfExists(final Path file) throws IOException {
+        return Files.isRegularFile(file) ? FileChannel.open(file) : null;
+    }
+
+    private static long size(final FileChannel channel) throws IOException {
+        return channel == null ? 0 : channel.size();
+    }
+
+    private static RuntimeException cantCompare(final Path file, final IOException e) {
+        return new RuntimeException(format("Can't compare the content of the file located at <%s>.", file), e);
+    }
+
+    /**
+     * Provides the bytes of a content, one window at a time.
+     */
+    private interface Window {
+        ByteBuffer read(long position, int size) throws IOException;
+    }
+}
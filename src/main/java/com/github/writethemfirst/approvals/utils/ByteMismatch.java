@@ -0,0 +1,42 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * # ByteMismatch
+ *
+ * Searches for the first difference between the remaining bytes of 2 buffers.
+ *
+ * Java 8 has no intrinsic comparison of byte arrays, so that implementation compares the buffers 8 bytes at a time (see
+ * {@link BinaryUtils#wordMismatch(ByteBuffer, ByteBuffer)}). The multi-release version of that class used on Java 9+
+ * relies on `Arrays.mismatch` instead for buffers backed by arrays, which the JVM vectorizes.
+ */
+final class ByteMismatch {
+    private ByteMismatch() {
+    }
+
+    /**
+     * @return the index (relative to their positions) of the first different byte of the buffers, the number of
+     * remaining bytes of the shortest one if it is a prefix of the other one, or -1 if they have the same content
+     */
+    static int mismatch(final ByteBuffer first, final ByteBuffer second) {
+        return BinaryUtils.wordMismatch(first, second);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import com.github.writethemfirst.approvals.utils.functions.Function5;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.LongStream.range;
+
+/**
+ * # Combinations
+ *
+ * All the combinations of the provided arguments (their Cartesian product), along with the function to apply to each
+ * of them.
+ *
+ * Each combination is identified by its index: the combinations are ordered like in nested loops over the arguments,
+ * the last argument being the innermost one. Any range of combinations can then be rendered independently of the
+ * others, which allows to split the rendering between several threads while producing exactly the same output as a
+ * sequential rendering.
+ *
+ * The label of each argument value is computed once (when the combinations are created), and then appended to each
+ * combination using that value, so the `toString()` of the arguments is never called more than once.
+ *
+ * The combinations can also be streamed (see {@link #stream(int)}), so that huge numbers of combinations can be
+ * verified without ever holding all their results in memory.
+ */
+public class Combinations {
+    /**
+     * Number of chunks of combinations rendered by each thread (on average) when rendering in parallel, so that threads
+     * don't wait for each other if some combinations take longer than others.
+     */
+    private static final int CHUNKS_BY_THREAD = 8;
+
+    /**
+     * Default size of the buffer used by {@link #stream()}, in characters.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final List<List<?>> arguments;
+    private final Function5<Object, Object, Object, Object, Object, ?> function;
+    private final String[][] labels;
+    private final long size;
+
+    /**
+     * @param arguments   The values of each argument of the function (which are copied, so they're only iterated once)
+     * @param function    The function to apply to each combination
+     * @param unspecified The marker of the arguments which are not specified, and shouldn't be rendered
+     */
+    @SuppressWarnings("unchecked")
+    Combinations(final List<Iterable<?>> arguments, final Function5<?, ?, ?, ?, ?, ?> function,
+                 final Object unspecified) {
+        this.arguments = arguments.stream().map(Combinations::copy).collect(toList());
+        this.function = (Function5<Object, Object, Object, Object, Object, ?>) function;
+        this.labels = this.arguments.stream()
+            .map(values -> values.stream().map(value -> label(value, unspecified)).toArray(String[]::new))
+            .toArray(String[][]::new);
+        this.size = this.arguments.stream().mapToLong(List::size).reduce(1, (a, b) -> a * b);
+    }
+
+    /**
+     * Renders all the combinations in the current thread.
+     *
+     * @return The rendered combinations, one line for each of them
+     */
+    public String render() {
+        return render(0, size);
+    }
+
+    /**
+     * Renders all the combinations, splitting them in chunks rendered by the provided executor. The chunks are then
+     * concatenated in order, so the output is the same as {@link #render()}.
+     *
+     * @param executor The executor rendering the chunks of combinations
+     * @return The rendered combinations, one line for each of them
+     */
+    public String render(final Executor executor) {
+        final long chunks = Math.min(size, (long) parallelism(executor) * CHUNKS_BY_THREAD);
+        if (chunks <= 1) {
+            return render();
+        }
+        final List<CompletableFuture<String>> renderedChunks = range(0, chunks)
+            .mapToObj(chunk -> CompletableFuture.supplyAsync(
+                () -> render(size * chunk / chunks, size * (chunk + 1) / chunks),
+                executor))
+            .collect(toList());
+        try {
+            return renderedChunks.stream().map(CompletableFuture::join).collect(joining());
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Streams the combinations, with a buffer whose size is configured by the `COMBINATIONS_BUFFER_SIZE` system
+     * property (64k characters by default). See {@link #stream(int)}.
+     *
+     * @return A reader providing the rendered combinations, one line for each of them
+     */
+    public CombinationsReader stream() {
+        return stream(Integer.getInteger("COMBINATIONS_BUFFER_SIZE", DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * Streams the combinations: they are rendered in the current thread only when read from the returned reader,
+     * and only a few of them are held at the same time in a buffer. The content read is the same as {@link #render()}.
+     *
+     * @param bufferSize The number of characters of combinations (roughly) rendered at once, bounding the memory used
+     *                   while reading (along with the size of a single combination result)
+     * @return A reader providing the rendered combinations, one line for each of them
+     */
+    public CombinationsReader stream(final int bufferSize) {
+        return new CombinationsReader(bufferSize);
+    }
+
+    /**
+     * Renders the combinations whose indexes are between `from` (inclusive) and `to` (exclusive).
+     */
+    private String render(final long from, final long to) {
+        final StringBuilder results = new StringBuilder();
+        final int[] combination = new int[arguments.size()];
+        for (long index = from; index < to; index++) {
+            appendCombination(results, combination, index);
+        }
+        return results.toString();
+    }
+
+    /**
+     * Renders the combination found at the provided index, using `combination` to hold the positions of its argument
+     * values.
+     */
+    private void appendCombination(final StringBuilder results, final int[] combination, final long index) {
+        fill(combination, index);
+        try {
+            results.append(function.apply(
+                value(0, combination), value(1, combination), value(2, combination), value(3, combination),
+                value(4, combination)));
+        } catch (final Exception e) {
+            results.append(e);
+        }
+        results.append(" <== ");
+        for (int i = 0; i < combination.length; i++) {
+            results.append(labels[i][combination[i]]);
+        }
+        results.append('\n');
+    }
+
+    /**
+     * Fills `combination` with the positions of the argument values of the combination found at the provided index.
+     */
+    private void fill(final int[] combination, final long index) {
+        long remaining = index;
+        for (int i = combination.length - 1; i >= 0; i--) {
+            final int count = labels[i].length;
+            combination[i] = (int) (remaining % count);
+            remaining /= count;
+        }
+    }
+
+    private Object value(final int argument, final int[] combination) {
+        return arguments.get(argument).get(combination[argument]);
+    }
+
+    /**
+     * Computes the label of an argument value, as rendered in each combination using it. It is computed only once for
+     * each value, whatever the number of combinations using it.
+     */
+    private static String label(final Object value, final Object unspecified) {
+        return value == unspecified ? "" : ", " + value;
+    }
+
+    private static int parallelism(final Executor executor) {
+        return executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static List<?> copy(final Iterable<?> values) {
+        final List<Object> copy = new ArrayList<>();
+        values.forEach(copy::add);
+        return copy;
+    }
+
+    /**
+     * Reader rendering the combinations on demand, a few of them at a time.
+     *
+     * The rendering can be stopped early with {@link #stopAfter(long)}, once the content read is known to be wrong.
+     */
+    public final class CombinationsReader extends Reader {
+        private final int bufferSize;
+        private final StringBuilder buffer = new StringBuilder();
+        private final List<Integer> rowEnds = new ArrayList<>();
+        private final int[] combination = new int[arguments.size()];
+        private long bufferStart = 0;
+        private long nextIndex = 0;
+        private long end = size;
+        private boolean stopped = false;
+        private int position = 0;
+
+        private CombinationsReader(final int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * Stops the content read after the provided number of rows, following the row being read. The rows which are
+         * already rendered in the buffer count in those rows, and the buffer is cut after them. If some combinations
+         * are then skipped, a last line mentioning how many of them were skipped is read instead, so that the content
+         * read can never be mistaken for a complete one.
+         *
+         * The rows rendered in the buffer have already been evaluated though: a buffer holding a single row (see
+         * {@link #stream(int)}) ensures that no combination is evaluated beyond those rows.
+         *
+         * @param rows The number of combinations still to be read after the one being read
+         */
+        public void stopAfter(final long rows) {
+            int started = 0;
+            while (started < rowEnds.size() && rowStart(started) < position) {
+                started++;
+            }
+            final long kept = started + rows;
+            if (kept < rowEnds.size()) {
+                buffer.setLength(rowStart((int) kept));
+                rowEnds.subList((int) kept, rowEnds.size()).clear();
+                nextIndex = bufferStart + kept;
+            }
+            end = Math.min(end, nextIndex + kept - rowEnds.size());
+        }
+
+        private int rowStart(final int row) {
+            return row == 0 ? 0 : rowEnds.get(row - 1);
+        }
+
+        @Override
+        public int read(final char[] target, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == buffer.length()) {
+                buffer.setLength(0);
+                rowEnds.clear();
+                position = 0;
+                bufferStart = nextIndex;
+                while (nextIndex < end && buffer.length() < bufferSize) {
+                    appendCombination(buffer, combination, nextIndex++);
+                    rowEnds.add(buffer.length());
+                }
+                if (nextIndex == end && end < size && !stopped) {
+                    buffer.append(format("[%d more combinations not evaluated]\n", size - end));
+                    stopped = true;
+                }
+                if (buffer.length() == 0) {
+                    return -1;
+                }
+            }
+            final int count = Math.min(length, buffer.length() - position);
+            buffer.getChars(position, position + count, target, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            nextIndex = end = size;
+            buffer.setLength(0);
+            rowEnds.clear();
+            position = 0;
+        }
+    }
+}
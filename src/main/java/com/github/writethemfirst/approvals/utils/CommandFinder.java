@@ -21,14 +21,17 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import static java.lang.Runtime.getRuntime;
+import static java.lang.String.format;
 import static java.lang.System.getenv;
 import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
 import static java.nio.file.Paths.get;
+import static java.util.Collections.emptyList;
 import static java.util.Comparator.naturalOrder;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.of;
@@ -36,7 +39,9 @@ import static java.util.stream.Stream.of;
 /**
  * Wrapper around an executable command outside the JVM.
  *
- * It enables to look for the latest version based on folder names.
+ * It enables to look for the latest version based on folder names. Executables are looked up in an {@link
+ * ExecutablesIndex} of the `PATH` first, and only searched for in the subfolders of the folder otherwise (the
+ * executables found that way being kept in an {@link ExecutablesCache} shared by all the JVMs).
  */
 public class CommandFinder {
     private static final int MAX_FOLDERS_DEPTH = 5;
@@ -72,7 +77,11 @@ public class CommandFinder {
         programFilesX86Folder = env.get(WINDOWS_ENV_PROGRAM_FILES_X86);
     }
 
-    public Optional<ExecutableCommand> executableCommand() {
+    /**
+     * Returns the latest version of the executable, searched for on the first call only (concurrent calls waiting for
+     * that search).
+     */
+    public synchronized Optional<ExecutableCommand> executableCommand() {
         searchForLatest();
         return Optional.ofNullable(cachedExecutableCommand);
     }
@@ -102,21 +111,41 @@ public class CommandFinder {
         try {
             return possiblePaths
                 .flatMap(this::matchingCommandInPath)
-                .map(Path::toString);
+                .map(Path::toString)
+                .distinct();
         } catch (final Exception e) {
             e.printStackTrace();
             return Stream.empty();
         }
     }
 
+    /**
+     * Finds the executables directly in a folder or in the `PATH` (see {@link ExecutablesIndex}), or else by walking
+     * the subfolders of the folder. The result of that walk is kept in the {@link ExecutablesCache}, and is reused as
+     * long as the folder didn't change.
+     */
     private Stream<Path> matchingCommandInPath(final Path possiblePath) {
+        final FlightEvent event = FlightEvents.executableSearch();
+        final List<Path> indexed = ExecutablesIndex.ofPath().find(executable, possiblePath);
+        final List<Path> found = indexed.isEmpty()
+            ? ExecutablesCache.configured().executables(possiblePath, executable, this::walk)
+            : indexed;
+        if (event.isEnabled()) {
+            event.path(possiblePath)
+                .outcome(format("%s %s: %d found", indexed.isEmpty() ? "walked for" : "indexed", executable, found.size()))
+                .commit();
+        }
+        return found.stream();
+    }
+
+    private List<Path> walk(final Path possiblePath) {
         try {
             FileVisitorWithResult visitor = new FileVisitorWithResult((p, a) -> p.endsWith(executable));
             Files.walkFileTree(possiblePath, EnumSet.of(FOLLOW_LINKS), MAX_FOLDERS_DEPTH, visitor);
             return visitor.result;
         } catch (IOException e) {
             e.printStackTrace();
-            return Stream.empty();
+            return emptyList();
         }
     }
 
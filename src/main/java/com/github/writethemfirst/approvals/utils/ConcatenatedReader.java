@@ -0,0 +1,56 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A {@link Reader} reading the content of several readers, one after the other (like `SequenceInputStream` does for
+ * input streams).
+ */
+public class ConcatenatedReader extends Reader {
+    private final Reader[] readers;
+    private int current = 0;
+
+    public ConcatenatedReader(final Reader... readers) {
+        this.readers = readers;
+    }
+
+    @Override
+    public int read(final char[] buffer, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (current < readers.length) {
+            final int read = readers[current].read(buffer, offset, length);
+            if (read >= 0) {
+                return read;
+            }
+            current++;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Reader reader : readers) {
+            reader.close();
+        }
+    }
+}
@@ -20,8 +20,10 @@ package com.github.writethemfirst.approvals.utils;
 import java.io.File;
 import java.io.IOException;
 
+import static java.lang.String.format;
 import static java.lang.String.join;
 import static java.nio.file.Paths.get;
+import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.of;
@@ -52,13 +54,32 @@ public class ExecutableCommand {
         final String[] cmdArray = buildCommandArray(arguments);
         System.out.printf("Running command [%s]%n", join(" ", cmdArray));
 
+        final FlightEvent event = FlightEvents.commandExecution();
         try {
-            runtime.exec(cmdArray).waitFor();
+            final int exitCode = runtime.exec(cmdArray).waitFor();
+            record(event, format("exit code %d", exitCode));
         } catch (final InterruptedException e) {
+            record(event, "interrupted");
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Runs the executable outside the JVM in the background, with the {@link ProcessLauncher#shared()} launcher. The
+     * call returns right away, even if the same command is already running.
+     */
+    public void launch(final String... arguments) {
+        final FlightEvent event = FlightEvents.commandExecution();
+        final boolean launched = ProcessLauncher.shared().launch(asList(buildCommandArray(arguments)));
+        record(event, launched ? "launched" : "already running");
+    }
+
+    private void record(final FlightEvent event, final String outcome) {
+        if (event.isEnabled()) {
+            event.path(get(executable)).outcome(outcome).commit();
+        }
+    }
+
     private String[] buildCommandArray(final String[] arguments) {
         return concat(
             of(executable),
@@ -0,0 +1,184 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRead;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * # ExecutablesCache
+ *
+ * Cache of the executables found by {@link CommandFinder} in a folder, persisted in a file shared by all the JVMs, so
+ * that the folders don't have to be walked again by each new JVM. The file is `~/.approvals-java-executables` by
+ * default, and can be changed with the `EXECUTABLES_CACHE` system property.
+ *
+ * An entry is only used if the last modification times of the searched folder, of its subfolders, and of the folders
+ * holding the executables found didn't change since it was written. Installing or removing an executable changes at
+ * least one of them in the usual layouts (`folder/vendor/product version/bin/executable`), and checking them is much
+ * cheaper than walking the folders again. The cache file can be removed to force a new search.
+ */
+final class ExecutablesCache {
+    private static final Map<Path, ExecutablesCache> CACHES = new ConcurrentHashMap<>();
+    private static final String SEPARATOR = "\t";
+
+    private final Path file;
+    private Map<String, Entry> entries;
+
+    ExecutablesCache(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the cache stored in the file configured by the `EXECUTABLES_CACHE` system property, or in
+     * `~/.approvals-java-executables` by default
+     */
+    static ExecutablesCache configured() {
+        final String configuredFile = System.getProperty("EXECUTABLES_CACHE");
+        final Path file = configuredFile != null
+            ? Paths.get(configuredFile)
+            : Paths.get(System.getProperty("user.home"), ".approvals-java-executables");
+        return CACHES.computeIfAbsent(file.toAbsolutePath(), ExecutablesCache::new);
+    }
+
+    /**
+     * Returns the executables named `executable` found in `folder`, from the cache if its entry is still valid, or by
+     * calling `search` otherwise (and then persisting its result).
+     *
+     * @param folder     The folder in which the executable is searched for
+     * @param executable The name of the executable
+     * @param search     The actual search of the executable in the folder
+     * @return the paths of all the executables found
+     */
+    synchronized List<Path> executables(final Path folder, final String executable,
+                                        final Function<Path, List<Path>> search) {
+        final String key = folder.toAbsolutePath() + SEPARATOR + executable;
+        final Entry cached = entries().get(key);
+        if (cached != null && cached.signature == signature(folder, cached.executables)) {
+            return cached.executables;
+        }
+        final List<Path> executables = search.apply(folder);
+        entries.put(key, new Entry(folder.toAbsolutePath(), signature(folder, executables), executables));
+        save();
+        return executables;
+    }
+
+    /**
+     * Combines the last modification times of the folder, of its subfolders, and of the folders holding the
+     * executables.
+     */
+    private static long signature(final Path folder, final List<Path> executables) {
+        long signature = lastModified(folder);
+        try (final Stream<Path> children = Files.list(folder)) {
+            for (final Path child : children.filter(Files::isDirectory).sorted().collect(toList())) {
+                signature = 31 * signature + child.getFileName().hashCode();
+                signature = 31 * signature + lastModified(child);
+            }
+        } catch (final IOException e) {
+            return -1;
+        }
+        for (final Path executable : executables) {
+            signature = 31 * signature + lastModified(executable.getParent());
+        }
+        return signature;
+    }
+
+    private static long lastModified(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (final IOException e) {
+            return -1;
+        }
+    }
+
+    private Map<String, Entry> entries() {
+        if (entries == null) {
+            entries = read();
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the entries of the cache file (ignoring the lines which can't be parsed). Each line holds the folder, the
+     * name of the executable, the signature of the entry, and the executables found, separated by tabulations.
+     */
+    private Map<String, Entry> read() {
+        final Map<String, Entry> read = new LinkedHashMap<>();
+        if (Files.isRegularFile(file)) {
+            for (final String line : silentRead(file).split("\r?\n")) {
+                final String[] fields = line.split(SEPARATOR);
+                if (fields.length >= 3) {
+                    try {
+                        final List<Path> executables = new ArrayList<>();
+                        for (int i = 3; i < fields.length; i++) {
+                            executables.add(Paths.get(fields[i]));
+                        }
+                        read.put(fields[0] + SEPARATOR + fields[1],
+                            new Entry(Paths.get(fields[0]), Long.parseLong(fields[2]), executables));
+                    } catch (final RuntimeException e) {
+                        System.err.println(format("Ignoring invalid line <%s> in %s", line, file));
+                    }
+                }
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Writes the entries in the cache file, merged with the ones written by other JVMs in the meantime. The entries of
+     * folders which don't exist anymore are dropped.
+     */
+    private void save() {
+        final Map<String, Entry> merged = read();
+        merged.putAll(entries);
+        merged.values().removeIf(entry -> !Files.isDirectory(entry.folder));
+        try {
+            FileUtils.write(merged.entrySet().stream()
+                .map(entry -> entry.getKey() + SEPARATOR + entry.getValue().signature
+                    + entry.getValue().executables.stream().map(executable -> SEPARATOR + executable).collect(joining()))
+                .collect(joining("\n")), file);
+        } catch (final RuntimeException e) {
+            System.err.println(format("Could not save the executables found in %s: %s", file, e));
+        }
+    }
+
+    private static final class Entry {
+        final Path folder;
+        final long signature;
+        final List<Path> executables;
+
+        Entry(final Path folder, final long signature, final List<Path> executables) {
+            this.folder = folder;
+            this.signature = signature;
+            this.executables = executables;
+        }
+    }
+}
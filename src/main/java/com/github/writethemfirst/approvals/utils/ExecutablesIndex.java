@@ -0,0 +1,120 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * # ExecutablesIndex
+ *
+ * Index of the files found directly in the folders of the `PATH` environment variable and in the folders searched by
+ * {@link CommandFinder}, by file name. Each folder is listed once (without walking its subfolders), so that looking for
+ * an executable is then a simple lookup in a map.
+ *
+ * {@link CommandFinder} only walks the subfolders of a folder when the executable can't be found that way.
+ */
+final class ExecutablesIndex {
+    private final Set<Path> pathFolders;
+    private final Map<String, List<Path>> filesByName = new HashMap<>();
+    private final Set<Path> indexedFolders = new HashSet<>();
+    private boolean pathIndexed = false;
+
+    ExecutablesIndex(final Collection<Path> pathFolders) {
+        this.pathFolders = new LinkedHashSet<>(pathFolders);
+    }
+
+    /**
+     * @return the index of the folders of the `PATH` environment variable, shared by all the {@link CommandFinder}s
+     */
+    static ExecutablesIndex ofPath() {
+        return PathIndex.INSTANCE;
+    }
+
+    /**
+     * Finds the executables named `executable` directly in `folder` or in the folders of the `PATH`. The folders are
+     * only listed the first time they are searched.
+     *
+     * @param executable The name of the executable
+     * @param folder     The folder in which the executable is expected
+     * @return the paths of the executables found
+     */
+    synchronized List<Path> find(final String executable, final Path folder) {
+        if (!pathIndexed) {
+            pathFolders.forEach(this::index);
+            pathIndexed = true;
+        }
+        index(folder);
+        return filesByName.getOrDefault(executable, emptyList()).stream()
+            .filter(file -> folder.equals(file.getParent()) || pathFolders.contains(file.getParent()))
+            .filter(Files::isExecutable)
+            .collect(toList());
+    }
+
+    private void index(final Path folder) {
+        if (indexedFolders.add(folder)) {
+            try (final Stream<Path> files = Files.list(folder)) {
+                files.forEach(file -> filesByName
+                    .computeIfAbsent(file.getFileName().toString(), name -> new ArrayList<>())
+                    .add(file));
+            } catch (final IOException | UncheckedIOException e) {
+                // folders which can't be listed (like missing ones) are simply not indexed
+            }
+        }
+    }
+
+    /**
+     * Parses the folders of a `PATH` environment variable, ignoring the invalid ones.
+     */
+    static List<Path> pathFolders(final String path) {
+        final List<Path> folders = new ArrayList<>();
+        if (path != null) {
+            for (final String folder : path.split(File.pathSeparator)) {
+                try {
+                    if (!folder.trim().isEmpty()) {
+                        folders.add(Paths.get(folder.trim()));
+                    }
+                } catch (final InvalidPathException e) {
+                    // ignored, like shells do
+                }
+            }
+        }
+        return folders;
+    }
+
+    private static final class PathIndex {
+        static final ExecutablesIndex INSTANCE = new ExecutablesIndex(pathFolders(System.getenv("PATH")));
+    }
+}
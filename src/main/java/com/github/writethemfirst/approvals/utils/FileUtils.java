@@ -17,16 +17,27 @@
  */
 package com.github.writethemfirst.approvals.utils;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.CopyOption;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.nio.charset.Charset.defaultCharset;
 import static java.nio.file.Files.*;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
 
 /**
  * # FileUtils
@@ -35,6 +46,7 @@ import static java.nio.file.Files.*;
  * methods.
  */
 public class FileUtils {
+    private static final int CHUNK_SIZE = 8192;
 
     /**
      * Reads the file located at the specified Path, and returns its content in case the file exists.
@@ -46,15 +58,39 @@ public class FileUtils {
      * @return The content of the specified file if it exists and can be parse, or an empty String otherwise
      */
     public static String silentRead(final Path file) {
+        final FlightEvent event = FlightEvents.fileRead();
         try {
-            return new String(Files.readAllBytes(file));
+            final byte[] bytes = Files.readAllBytes(file);
+            event.path(file).approvedSize(bytes.length).outcome("read").commit();
+            return new String(bytes);
         } catch (final IOException e) {
+            event.path(file).outcome("failed").commit();
             System.err.println(format("Can't read the file located at <%s>.", file));
             System.err.println(e);
             return "";
         }
     }
 
+    /**
+     * Opens a {@link Reader} on the file located at the specified Path, decoding its content incrementally (with the
+     * same charset as {@link #silentRead(Path)}).
+     *
+     * If it doesn't exist or if it cannot be opened, that method will return a reader on an empty content and ignore
+     * the {@link IOException}. An error message will be written in {@link System#err} though.
+     *
+     * @param file The path of the file to be read
+     * @return A reader on the content of the specified file if it can be opened, or on an empty content otherwise
+     */
+    public static Reader silentReader(final Path file) {
+        try {
+            return new InputStreamReader(Files.newInputStream(file), defaultCharset());
+        } catch (final IOException e) {
+            System.err.println(format("Can't read the file located at <%s>.", file));
+            System.err.println(e);
+            return new StringReader("");
+        }
+    }
+
 
     /**
      * Removes the file located at the specified Path if it exists.
@@ -112,23 +148,337 @@ public class FileUtils {
      * automatically. A message will be written in `System.err` and a `RuntimeException` will be thrown in case of any
      * error.
      *
-     * The provided `content` will then be written in the provided `file`. A `RuntimeException` will be thrown in case
-     * anything is going wrong will writing the content in the `file`.
+     * The provided `content` will then be written in the provided `file`, unless the file already holds that content:
+     * it is then left untouched, so that its last modification time doesn't change. The content is written in a
+     * temporary file first, which then replaces `file` in a single move, so that `file` is never left half-written. A
+     * `RuntimeException` will be thrown in case anything is going wrong will writing the content in the `file`.
      *
      * @param content The content to be written in the specified file
      * @param file    The file in which the content should be written
      */
-    public static void write(final String content, final Path file) {
+    public static void write(final CharSequence content, final Path file) {
+        final FlightEvent event = FlightEvents.fileWrite();
+        if (hasContent(file, content)) {
+            recordWrite(event, file, "unchanged");
+        } else {
+            replace(file, output -> {
+                final Writer writer = newWriter(output);
+                writeChunks(content, writer, () -> true);
+                writer.flush();
+            });
+            recordWrite(event, file, "written");
+        }
+    }
+
+    /**
+     * Writes the content read from `content` in the `file` located at the specified Path, without loading the whole
+     * content in memory.
+     *
+     * It behaves like {@link #write(CharSequence, Path)}. The `content` reader is read until its end, but not closed.
+     *
+     * @param content The reader providing the content to be written in the specified file
+     * @param file    The file in which the content should be written
+     */
+    public static void write(final Reader content, final Path file) {
+        write(file, writer -> transfer(content, writer));
+    }
+
+    /**
+     * Writes the content produced by `content` in the `file` located at the specified Path, without loading the whole
+     * content in memory.
+     *
+     * It behaves like {@link #write(CharSequence, Path)}. Since the content can only be produced once, it is always
+     * written in the temporary file, which is then compared with `file` (and deleted if they have the same content).
+     *
+     * @param file    The file in which the content should be written
+     * @param content The producer of the content to be written in the specified file
+     */
+    public static void write(final Path file, final ContentWriter content) {
+        final FlightEvent event = FlightEvents.fileWrite();
         createParentDirectories(file);
-        try (final BufferedWriter writer = newBufferedWriter(file)) {
-            writer.write(content);
+        try {
+            final Path temporary = writeTemporary(file, output -> {
+                final Writer writer = newWriter(output);
+                content.writeTo(writer);
+                writer.flush();
+            });
+            if (sameBytes(temporary, file)) {
+                deleteIfExists(temporary);
+                recordWrite(event, file, "unchanged");
+            } else {
+                moveAtomically(temporary, file);
+                recordWrite(event, file, "written");
+            }
         } catch (final IOException e) {
-            final String message = format("Can't write the file located at <%s> because of <%s>.",
-                file.toAbsolutePath(), e.getMessage());
-            throw new RuntimeException(message, e);
+            throw cantWrite(file, e);
         }
     }
 
+    /**
+     * Writes the content produced by `content` in a new file of the temporary directory, so that it can be produced
+     * outside of the approval folders (and before taking their locks), and then copied to an approval file with {@link
+     * #copy(Path, Path)}. The file is removed if the content can't be written.
+     *
+     * @param content The producer of the content to be written
+     * @return The temporary file holding the content, which should be removed once copied
+     */
+    public static Path writeTemporary(final ContentWriter content) {
+        try {
+            final Path temporary = createTempFile("approvals-java-", ".tmp");
+            try (final OutputStream output = newOutputStream(temporary, WRITE)) {
+                final Writer writer = newWriter(output);
+                content.writeTo(writer);
+                writer.flush();
+            } catch (final IOException | RuntimeException e) {
+                deleteIfExists(temporary);
+                throw e;
+            }
+            return temporary;
+        } catch (final IOException e) {
+            throw new RuntimeException("Can't write a temporary file.", e);
+        }
+    }
+
+    /**
+     * Writes the content read from `content` in a new file of the temporary directory, like {@link
+     * #writeTemporary(ContentWriter)}. The `content` reader is read until its end, but not closed.
+     *
+     * @param content The reader providing the content to be written
+     * @return The temporary file holding the content, which should be removed once copied
+     */
+    public static Path writeTemporary(final Reader content) {
+        return writeTemporary(writer -> transfer(content, writer));
+    }
+
+    /**
+     * Writes the remaining bytes of `content` in the `file` located at the specified Path, as they are.
+     *
+     * It behaves like {@link #write(CharSequence, Path)}. The position of the `content` buffer is left unchanged.
+     *
+     * @param content The bytes to be written in the specified file
+     * @param file    The file in which the content should be written
+     */
+    public static void write(final ByteBuffer content, final Path file) {
+        final FlightEvent event = FlightEvents.fileWrite();
+        if (hasBytes(file, content)) {
+            recordWrite(event, file, "unchanged");
+        } else {
+            replace(file, output -> {
+                final WritableByteChannel channel = Channels.newChannel(output);
+                final ByteBuffer bytes = content.duplicate();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            });
+            recordWrite(event, file, "written");
+        }
+    }
+
+    /**
+     * Producer of a content to be written with {@link #write(Path, ContentWriter)}.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private static void transfer(final Readable content, final Writer writer) throws IOException {
+        final CharBuffer buffer = CharBuffer.allocate(CHUNK_SIZE);
+        while (content.read(buffer) >= 0) {
+            buffer.flip();
+            writer.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes `content` through the `writer` by chunks, as long as `goOn` allows it.
+     */
+    private static void writeChunks(final CharSequence content, final Writer writer, final BooleanSupplier goOn)
+        throws IOException {
+        for (int start = 0; start < content.length() && goOn.getAsBoolean(); start += CHUNK_SIZE) {
+            final int end = Math.min(content.length(), start + CHUNK_SIZE);
+            if (content instanceof String) {
+                writer.write((String) content, start, end - start);
+            } else {
+                writer.append(content, start, end);
+            }
+        }
+    }
+
+    /**
+     * Encodes the characters written with the same charset as {@link #silentRead(Path)}, and fails on characters which
+     * can't be encoded (like {@link Files#newBufferedWriter(Path, OpenOption...)}).
+     */
+    private static Writer newWriter(final OutputStream output) {
+        return new BufferedWriter(new OutputStreamWriter(output, defaultCharset().newEncoder()));
+    }
+
+    /**
+     * Checks if `file` already holds `content` once encoded: its size is checked first against the maximum size of the
+     * encoded content, then `content` is encoded and compared on the fly with the bytes of the file, until the first
+     * difference.
+     */
+    private static boolean hasContent(final Path file, final CharSequence content) {
+        try {
+            final float maxBytesPerChar = defaultCharset().newEncoder().maxBytesPerChar();
+            if (!isRegularFile(file) || size(file) > content.length() * (double) maxBytesPerChar) {
+                return false;
+            }
+            try (final ComparingOutputStream comparison = new ComparingOutputStream(newInputStream(file))) {
+                final Writer writer = newWriter(comparison);
+                writeChunks(content, writer, () -> comparison.same);
+                writer.flush();
+                return comparison.hasSameContent();
+            }
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if `file` already holds the remaining bytes of `content`: sizes are compared first, then the bytes.
+     */
+    private static boolean hasBytes(final Path file, final ByteBuffer content) {
+        try {
+            return isRegularFile(file) && size(file) == content.remaining() && BinaryUtils.mismatch(content, file) < 0;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if both files exist and hold the same bytes: sizes are compared first, then the bytes.
+     */
+    private static boolean sameBytes(final Path first, final Path second) {
+        try {
+            return isRegularFile(first) && isRegularFile(second) && size(first) == size(second)
+                && BinaryUtils.mismatch(first, second) < 0;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the `file` by a temporary file in which `content` is written.
+     */
+    private static void replace(final Path file, final OutputContent content) {
+        createParentDirectories(file);
+        try {
+            moveAtomically(writeTemporary(file, content), file);
+        } catch (final IOException e) {
+            throw cantWrite(file, e);
+        }
+    }
+
+    /**
+     * Writes `content` in a new temporary file, created next to `file` so that it can then be moved atomically. The
+     * temporary file is removed if the content can't be written.
+     */
+    private static Path writeTemporary(final Path file, final OutputContent content) throws IOException {
+        final Path temporary = temporaryFileFor(file);
+        try (final OutputStream output = newOutputStream(temporary, CREATE_NEW, WRITE)) {
+            content.writeTo(output);
+        } catch (final IOException | RuntimeException e) {
+            deleteIfExists(temporary);
+            throw e;
+        }
+        return temporary;
+    }
+
+    private static Path temporaryFileFor(final Path file) {
+        return file.resolveSibling(format(".%s.%x.tmp", file.getFileName(), ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Moves `source` to `target` in a single step if the file system supports it, replacing `target` if it exists.
+     */
+    private static void moveAtomically(final Path source, final Path target) throws IOException {
+        try {
+            try {
+                move(source, target, ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                move(source, target, REPLACE_EXISTING);
+            }
+        } catch (final IOException e) {
+            deleteIfExists(source);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface OutputContent {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Output stream comparing the bytes written with the ones read from an input stream, until the first difference.
+     */
+    private static final class ComparingOutputStream extends OutputStream {
+        private final InputStream expected;
+        private final byte[] expectedBytes = new byte[CHUNK_SIZE];
+        private boolean same = true;
+
+        ComparingOutputStream(final InputStream expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            same = same && expected.read() == (b & 0xFF);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            for (int done = 0; same && done < length; ) {
+                final int read = expected.read(expectedBytes, 0, Math.min(length - done, expectedBytes.length));
+                if (read < 0) {
+                    same = false;
+                }
+                for (int i = 0; same && i < read; i++) {
+                    same = expectedBytes[i] == bytes[offset + done + i];
+                }
+                done += read;
+            }
+        }
+
+        /**
+         * @return true if the bytes written so far are the same as all the bytes of the input stream
+         */
+        boolean hasSameContent() throws IOException {
+            return same && expected.read() < 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            expected.close();
+        }
+    }
+
+    /**
+     * Commits an event about a file written (or left unchanged), only computing the size of the file if the event is
+     * recorded.
+     */
+    private static void recordWrite(final FlightEvent event, final Path file, final String outcome) {
+        if (event.isEnabled()) {
+            event.path(file).actualSize(sizeOf(file)).outcome(outcome).commit();
+        }
+    }
+
+    private static long sizeOf(final Path file) {
+        try {
+            return size(file);
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    private static RuntimeException cantWrite(final Path file, final IOException e) {
+        final String message = format("Can't write the file located at <%s> because of <%s>.",
+            file.toAbsolutePath(), e.getMessage());
+        return new RuntimeException(message, e);
+    }
+
     public static void createParentDirectories(final Path file) {
         try {
             createDirectories(file.getParent());
@@ -142,7 +492,8 @@ public class FileUtils {
      * Copies the content of a file found at a specified Path to another file located at another specified Path.
      *
      * It'll swallow all errors while reading the sourceFile (using an empty String as data) and only produce exceptions
-     * in case of errors while writing the new file.
+     * in case of errors while writing the new file. The content is copied byte per byte, so it doesn't depend on any
+     * charset.
      *
      * @param sourceFile      The file from which the data to be copied should be parse
      * @param destinationFile The file to which the data to be copied should be written
@@ -167,8 +518,35 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Copies the bytes of the file as they are (without decoding them), so binary files are copied safely. The copy
+     * itself is left to {@link Files#copy(Path, Path, CopyOption...)}, which relies on the copy primitives of the file
+     * system when there are some.
+     *
+     * Like {@link #write(CharSequence, Path)}, the destination file is left untouched if it already holds the same
+     * bytes, and is otherwise replaced by a temporary copy in a single move.
+     */
     private static void copyFile(final Path sourceFile, final Path destinationFile) {
-        write(silentRead(sourceFile), destinationFile);
+        final FlightEvent event = FlightEvents.fileWrite();
+        if (sameBytes(sourceFile, destinationFile)) {
+            recordWrite(event, destinationFile, "unchanged");
+            return;
+        }
+        createParentDirectories(destinationFile);
+        final Path temporary = temporaryFileFor(destinationFile);
+        try {
+            Files.copy(sourceFile, temporary);
+            moveAtomically(temporary, destinationFile);
+            recordWrite(event, destinationFile, "copied");
+        } catch (final IOException e) {
+            silentRemove(temporary);
+            if (isReadable(sourceFile)) {
+                throw cantWrite(destinationFile, e);
+            }
+            System.err.println(format("Can't read the file located at <%s>.", sourceFile));
+            System.err.println(e);
+            write("", destinationFile);
+        }
     }
 
     /**
@@ -20,11 +20,12 @@ package com.github.writethemfirst.approvals.utils;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiPredicate;
-import java.util.stream.Stream;
 
 public class FileVisitorWithResult extends SimpleFileVisitor<Path> {
-  Stream<Path> result = Stream.empty();
+  final List<Path> result = new ArrayList<>();
   private BiPredicate<Path, BasicFileAttributes> matcher;
 
   public FileVisitorWithResult(BiPredicate<Path, BasicFileAttributes> pMatcher) {
@@ -34,7 +35,7 @@ public class FileVisitorWithResult extends SimpleFileVisitor<Path> {
   @Override
   public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
     if (matcher.test(file, attrs)) {
-      result = Stream.concat(result, Stream.of(file));
+      result.add(file);
     }
     return super.visitFile(file, attrs);
   }
@@ -0,0 +1,60 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.nio.file.Path;
+
+/**
+ * # FlightEvent
+ *
+ * An event of the JDK Flight Recorder, emitted around the approval operations (see {@link FlightEvents}).
+ *
+ * The event is only committed if it is enabled, that is if a recording is running on a JVM supporting it. The values
+ * which are costly to compute (like file sizes) should only be computed when {@link #isEnabled()}.
+ */
+public interface FlightEvent {
+    /**
+     * @return true if the event is recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * Sets the path of the file (or folder) the event is about, like the *approved* file.
+     */
+    FlightEvent path(Path path);
+
+    /**
+     * Sets the size (in bytes) of the *approved* content, or of the file read.
+     */
+    FlightEvent approvedSize(long size);
+
+    /**
+     * Sets the size (in bytes) of the actual content, or of the file written.
+     */
+    FlightEvent actualSize(long size);
+
+    /**
+     * Sets the outcome of the operation.
+     */
+    FlightEvent outcome(String outcome);
+
+    /**
+     * Ends the event, and records it if it is enabled.
+     */
+    void commit();
+}
@@ -0,0 +1,113 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.nio.file.Path;
+
+/**
+ * # FlightEvents
+ *
+ * Factory of the {@link FlightEvent}s emitted around the approval operations, so that they can be seen in the
+ * recordings of the JDK Flight Recorder.
+ *
+ * The Flight Recorder API only exists since Java 11, so that implementation returns events which are never enabled. The
+ * multi-release version of that class used on Java 11+ returns actual Flight Recorder events, which are only started
+ * when they are enabled: otherwise, {@link #NONE} is returned and nothing is recorded.
+ */
+public final class FlightEvents {
+    /**
+     * The event returned when nothing is recorded: its methods do nothing.
+     */
+    public static final FlightEvent NONE = new NoEvent();
+
+    private FlightEvents() {
+    }
+
+    /**
+     * @return an event around the verification of an output against its *approved* file
+     */
+    public static FlightEvent verification() {
+        return NONE;
+    }
+
+    /**
+     * @return an event around the comparison of a folder with its *approved* folder
+     */
+    public static FlightEvent folderComparison() {
+        return NONE;
+    }
+
+    /**
+     * @return an event around the reading of a file
+     */
+    public static FlightEvent fileRead() {
+        return NONE;
+    }
+
+    /**
+     * @return an event around the writing (or copy) of a file
+     */
+    public static FlightEvent fileWrite() {
+        return NONE;
+    }
+
+    /**
+     * @return an event around the search for an executable in a folder
+     */
+    public static FlightEvent executableSearch() {
+        return NONE;
+    }
+
+    /**
+     * @return an event around the execution of an external command
+     */
+    public static FlightEvent commandExecution() {
+        return NONE;
+    }
+
+    private static final class NoEvent implements FlightEvent {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public FlightEvent path(final Path path) {
+            return this;
+        }
+
+        @Override
+        public FlightEvent approvedSize(final long size) {
+            return this;
+        }
+
+        @Override
+        public FlightEvent actualSize(final long size) {
+            return this;
+        }
+
+        @Override
+        public FlightEvent outcome(final String outcome) {
+            return this;
+        }
+
+        @Override
+        public void commit() {
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+/**
+ * Callback receiving the frames of the current thread stack, from the most recent call to the oldest one.
+ *
+ * It is used by {@link CallerFrames} so the walk can stop as soon as the searched frame has been found.
+ */
+@FunctionalInterface
+interface FrameVisitor {
+
+    /**
+     * Visits a single frame of the current thread stack.
+     *
+     * @param className  The fully qualified name of the class declaring the method of the frame
+     * @param methodName The name of the method of the frame
+     * @return true if the walk should stop there (no more frames will be visited)
+     */
+    boolean visit(final String className, final String methodName);
+}
@@ -19,9 +19,11 @@ package com.github.writethemfirst.approvals.utils;
 
 import com.github.writethemfirst.approvals.utils.functions.*;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Arrays.asList;
 
 /**
  * # FunctionUtils
@@ -158,42 +160,230 @@ public class FunctionUtils {
     public static <IN1, IN2, IN3, IN4, IN5> String applyCombinations
     (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3, final Iterable<IN4> args4,
      final Iterable<IN5> args5, final Function5<IN1, IN2, IN3, IN4, IN5, ?> function) {
-        final StringBuilder results = new StringBuilder();
-        for (final IN1 arg1 : args1) {
-            for (final IN2 arg2 : args2) {
-                for (final IN3 arg3 : args3) {
-                    for (final IN4 arg4 : args4) {
-                        for (final IN5 arg5 : args5) {
-                            try {
-                                results.append(function.apply(arg1, arg2, arg3, arg4, arg5));
-                            } catch (final Exception e) {
-                                results.append(e);
-                            }
-                            results.append(buildArgumentsString(" <== , ", ", ", "\n",
-                                arg1, arg2, arg3, arg4, arg5));
-                        }
-                    }
-                }
-            }
-        }
-        return results.toString();
+        return combinations(args1, args2, args3, args4, args5, function).render();
+    }
+
+
+    /**
+     * Applies the provided function to all combinations of all the provided arguments for the function, like {@link
+     * #applyCombinations(Iterable, Function1)}, but in parallel using the provided executor.
+     *
+     * The combinations are split in chunks which are rendered by the executor, and then concatenated in order: the
+     * produced String is exactly the same as the one produced sequentially.
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param executor The executor to use for applying the function (like {@link ForkJoinPool#commonPool()})
+     * @param <IN1>    Type of the argument 1
+     * @return A String containing all the combinations of provided arguments, and the result produced by the function
+     * application
+     */
+    public static <IN1> String applyCombinations(final Iterable<IN1> args1, final Function1<IN1, ?> function,
+                                                 final Executor executor) {
+        return applyCombinations(args1, UNSPECIFIED, (arg1, arg2) -> function.apply(arg1), executor);
+    }
+
+    /**
+     * Applies the provided function to all combinations of all the provided arguments for the function, like {@link
+     * #applyCombinations(Iterable, Iterable, Function2)}, but in parallel using the provided executor.
+     *
+     * The combinations are split in chunks which are rendered by the executor, and then concatenated in order: the
+     * produced String is exactly the same as the one produced sequentially.
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param executor The executor to use for applying the function (like {@link ForkJoinPool#commonPool()})
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @return A String containing all the combinations of provided arguments, and the result produced by the function
+     * application
+     */
+    public static <IN1, IN2> String applyCombinations(final Iterable<IN1> args1, final Iterable<IN2> args2,
+                                                      final Function2<IN1, IN2, ?> function,
+                                                      final Executor executor) {
+        return applyCombinations(args1, args2, UNSPECIFIED, (arg1, arg2, arg3) -> function.apply(arg1, arg2),
+            executor);
     }
 
     /**
-     * Builds a String representation out of the provided arguments using the provided prefix, delimiter, and suffix;
-     * after filtering the valid arguments (not the UNSPECIFIED_ENTRY ones).
+     * Applies the provided function to all combinations of all the provided arguments for the function, like {@link
+     * #applyCombinations(Iterable, Iterable, Iterable, Function3)}, but in parallel using the provided executor.
      *
-     * @param prefix    Prefix to be added before each produced String
-     * @param delimiter Delimiter to be used to separate each members of the built String
-     * @param suffix    Suffix to be added after each produced String
-     * @param arguments The list of arguments to be filtered and included in the constructed String
-     * @return A String representation of the provided arguments after filtering the valid ones
+     * The combinations are split in chunks which are rendered by the executor, and then concatenated in order: the
+     * produced String is exactly the same as the one produced sequentially.
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param args3    A collection of all the arguments 3 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param executor The executor to use for applying the function (like {@link ForkJoinPool#commonPool()})
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @param <IN3>    Type of the argument 3
+     * @return A String containing all the combinations of provided arguments, and the result produced by the function
+     * application
      */
-    private static String buildArgumentsString(final String prefix, final String delimiter, final String suffix,
-                                               final Object... arguments) {
-        return Arrays.stream(arguments)
-            .filter(o -> o != UNSPECIFIED_ENTRY)
-            .map(Object::toString)
-            .collect(Collectors.joining(delimiter, prefix, suffix));
+    public static <IN1, IN2, IN3> String applyCombinations
+    (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3,
+     final Function3<IN1, IN2, IN3, ?> function, final Executor executor) {
+        return applyCombinations(args1, args2, args3, UNSPECIFIED,
+            (arg1, arg2, arg3, arg4) -> function.apply(arg1, arg2, arg3), executor);
+    }
+
+    /**
+     * Applies the provided function to all combinations of all the provided arguments for the function, like {@link
+     * #applyCombinations(Iterable, Iterable, Iterable, Iterable, Function4)}, but in parallel using the provided
+     * executor.
+     *
+     * The combinations are split in chunks which are rendered by the executor, and then concatenated in order: the
+     * produced String is exactly the same as the one produced sequentially.
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param args3    A collection of all the arguments 3 to apply the function to
+     * @param args4    A collection of all the arguments 4 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param executor The executor to use for applying the function (like {@link ForkJoinPool#commonPool()})
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @param <IN3>    Type of the argument 3
+     * @param <IN4>    Type of the argument 4
+     * @return A String containing all the combinations of provided arguments, and the result produced by the function
+     * application
+     */
+    public static <IN1, IN2, IN3, IN4> String applyCombinations
+    (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3, final Iterable<IN4> args4,
+     final Function4<IN1, IN2, IN3, IN4, ?> function, final Executor executor) {
+        return applyCombinations(args1, args2, args3, args4, UNSPECIFIED,
+            (arg1, arg2, arg3, arg4, arg5) -> function.apply(arg1, arg2, arg3, arg4), executor);
+    }
+
+    /**
+     * Applies the provided function to all combinations of all the provided arguments for the function, like {@link
+     * #applyCombinations(Iterable, Iterable, Iterable, Iterable, Iterable, Function5)}, but in parallel using the
+     * provided executor.
+     *
+     * The combinations are split in chunks which are rendered by the executor, and then concatenated in order: the
+     * produced String is exactly the same as the one produced sequentially.
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param args3    A collection of all the arguments 3 to apply the function to
+     * @param args4    A collection of all the arguments 4 to apply the function to
+     * @param args5    A collection of all the arguments 5 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param executor The executor to use for applying the function (like {@link ForkJoinPool#commonPool()})
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @param <IN3>    Type of the argument 3
+     * @param <IN4>    Type of the argument 4
+     * @param <IN5>    Type of the argument 5
+     * @return A String containing all the combinations of provided arguments, and the result produced by the function
+     * application
+     */
+    public static <IN1, IN2, IN3, IN4, IN5> String applyCombinations
+    (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3, final Iterable<IN4> args4,
+     final Iterable<IN5> args5, final Function5<IN1, IN2, IN3, IN4, IN5, ?> function, final Executor executor) {
+        return combinations(args1, args2, args3, args4, args5, function).render(executor);
+    }
+
+    /**
+     * Returns all the combinations of all the provided arguments for the function, which can be rendered like in
+     * {@link #applyCombinations(Iterable, Function1)}, or streamed without ever holding all the results in memory (see
+     * {@link Combinations#stream(int)}).
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param <IN1>    Type of the argument 1
+     * @return The combinations of provided arguments, along with the function to apply to them
+     */
+    public static <IN1> Combinations combinations(final Iterable<IN1> args1, final Function1<IN1, ?> function) {
+        return combinations(args1, UNSPECIFIED, (arg1, arg2) -> function.apply(arg1));
+    }
+
+    /**
+     * Returns all the combinations of all the provided arguments for the function, which can be rendered like in
+     * {@link #applyCombinations(Iterable, Iterable, Function2)}, or streamed without ever holding all the results in
+     * memory (see {@link Combinations#stream(int)}).
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @return The combinations of provided arguments, along with the function to apply to them
+     */
+    public static <IN1, IN2> Combinations combinations(final Iterable<IN1> args1, final Iterable<IN2> args2,
+                                                       final Function2<IN1, IN2, ?> function) {
+        return combinations(args1, args2, UNSPECIFIED, (arg1, arg2, arg3) -> function.apply(arg1, arg2));
+    }
+
+    /**
+     * Returns all the combinations of all the provided arguments for the function, which can be rendered like in
+     * {@link #applyCombinations(Iterable, Iterable, Iterable, Function3)}, or streamed without ever holding all the
+     * results in memory (see {@link Combinations#stream(int)}).
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param args3    A collection of all the arguments 3 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @param <IN3>    Type of the argument 3
+     * @return The combinations of provided arguments, along with the function to apply to them
+     */
+    public static <IN1, IN2, IN3> Combinations combinations
+    (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3,
+     final Function3<IN1, IN2, IN3, ?> function) {
+        return combinations(args1, args2, args3, UNSPECIFIED,
+            (arg1, arg2, arg3, arg4) -> function.apply(arg1, arg2, arg3));
+    }
+
+    /**
+     * Returns all the combinations of all the provided arguments for the function, which can be rendered like in
+     * {@link #applyCombinations(Iterable, Iterable, Iterable, Iterable, Function4)}, or streamed without ever holding
+     * all the results in memory (see {@link Combinations#stream(int)}).
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param args3    A collection of all the arguments 3 to apply the function to
+     * @param args4    A collection of all the arguments 4 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @param <IN3>    Type of the argument 3
+     * @param <IN4>    Type of the argument 4
+     * @return The combinations of provided arguments, along with the function to apply to them
+     */
+    public static <IN1, IN2, IN3, IN4> Combinations combinations
+    (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3, final Iterable<IN4> args4,
+     final Function4<IN1, IN2, IN3, IN4, ?> function) {
+        return combinations(args1, args2, args3, args4, UNSPECIFIED,
+            (arg1, arg2, arg3, arg4, arg5) -> function.apply(arg1, arg2, arg3, arg4));
+    }
+
+    /**
+     * Returns all the combinations of all the provided arguments for the function, which can be rendered like in
+     * {@link #applyCombinations(Iterable, Iterable, Iterable, Iterable, Iterable, Function5)}, or streamed without ever
+     * holding all the results in memory (see {@link Combinations#stream(int)}).
+     *
+     * @param args1    A collection of all the arguments 1 to apply the function to
+     * @param args2    A collection of all the arguments 2 to apply the function to
+     * @param args3    A collection of all the arguments 3 to apply the function to
+     * @param args4    A collection of all the arguments 4 to apply the function to
+     * @param args5    A collection of all the arguments 5 to apply the function to
+     * @param function The function to apply on the combinations of provided arguments
+     * @param <IN1>    Type of the argument 1
+     * @param <IN2>    Type of the argument 2
+     * @param <IN3>    Type of the argument 3
+     * @param <IN4>    Type of the argument 4
+     * @param <IN5>    Type of the argument 5
+     * @return The combinations of provided arguments, along with the function to apply to them
+     */
+    public static <IN1, IN2, IN3, IN4, IN5> Combinations combinations
+    (final Iterable<IN1> args1, final Iterable<IN2> args2, final Iterable<IN3> args3, final Iterable<IN4> args4,
+     final Iterable<IN5> args5, final Function5<IN1, IN2, IN3, IN4, IN5, ?> function) {
+        return new Combinations(asList(args1, args2, args3, args4, args5), function, UNSPECIFIED_ENTRY);
     }
 }
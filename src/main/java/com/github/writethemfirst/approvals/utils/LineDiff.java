@@ -0,0 +1,416 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * # LineDiff
+ *
+ * Computes the differences between 2 lists of lines, and describes them as a unified diff.
+ *
+ * The shortest edit script is found with the *O(ND)* algorithm of Eugene Myers, in its linear space refinement: instead
+ * of keeping all the furthest reaching paths, the middle snake of the edit graph is searched from both ends at the same
+ * time, and both halves are then compared recursively (like Hirschberg's algorithm does for the longest common
+ * subsequence). The common lines at the beginning and at the end are skipped before each step, so similar contents
+ * are compared in linear time whatever their size.
+ *
+ * Very different contents still take a time quadratic in their size though, so the search can be bounded by a maximum
+ * amount of work (see {@link #workFor(int, int)}). When it is exceeded, the diff isn't computed: only the lines around
+ * the first difference are described.
+ */
+class LineDiff {
+    private static final long WORK_PER_LINE = 32;
+    private static final long WORK_PER_CHARACTER = 1000;
+    private static final int HUNK_HEADER_LENGTH = 32;
+    private static final String FIRST_DIFFERENCE_ONLY =
+        "[... too many differences, only the lines after the first one are shown]";
+
+    private final List<String> expected;
+    private final List<String> actual;
+    private final int[] expectedIds;
+    private final int[] actualIds;
+    private final boolean[] removed;
+    private final boolean[] added;
+    private final long maxWork;
+    private long work = 0;
+    private boolean exhausted = false;
+
+    /**
+     * Computes the differences between both lists of lines, whatever the work needed.
+     *
+     * @param expected The lines expected
+     * @param actual   The lines actually found
+     */
+    LineDiff(final List<String> expected, final List<String> actual) {
+        this(expected, actual, Long.MAX_VALUE);
+    }
+
+    /**
+     * Computes the differences between both lists of lines, unless it needs more than `maxWork` steps in the edit
+     * graph.
+     *
+     * @param expected The lines expected
+     * @param actual   The lines actually found
+     * @param maxWork  The maximum number of steps in the edit graph, after which the search is abandoned
+     */
+    LineDiff(final List<String> expected, final List<String> actual, final long maxWork) {
+        this.expected = expected;
+        this.actual = actual;
+        this.maxWork = maxWork;
+        final Map<String, Integer> ids = new HashMap<>();
+        this.expectedIds = ids(expected, ids);
+        this.actualIds = ids(actual, ids);
+        this.removed = new boolean[expected.size()];
+        this.added = new boolean[actual.size()];
+        compare(0, expectedIds.length, 0, actualIds.length);
+    }
+
+    /**
+     * Returns the amount of work worth spending on a diff: linear in the number of lines, so that big contents with a
+     * few differences are still diffed, plus an amount proportional to the length of the description, since a longer
+     * search would only find changes which don't fit in it.
+     *
+     * @param maxLength The maximum length of the description of the diff
+     * @param lines     The total number of lines compared
+     * @return The maximum number of steps in the edit graph
+     */
+    static long workFor(final int maxLength, final int lines) {
+        return WORK_PER_LINE * lines + WORK_PER_CHARACTER * maxLength;
+    }
+
+    /**
+     * Describes the differences as a unified diff, with the provided number of unchanged lines around each change.
+     *
+     * @param contextLines The number of unchanged lines to show before and after each change
+     * @param maxLength    The maximum length of the description, after which it is truncated
+     * @return The unified diff from the expected lines to the actual ones
+     */
+    String unified(final int contextLines, final int maxLength) {
+        final Description description = new Description(maxLength);
+        description.append("--- approved\n+++ received\n");
+        if (exhausted) {
+            appendFirstDifference(description, contextLines, maxLength);
+            return description.toString();
+        }
+        int expectedIndex = 0;
+        int actualIndex = 0;
+        while (!description.isFull()) {
+            final int[] change = nextChange(expectedIndex, actualIndex);
+            if (change == null) {
+                break;
+            }
+            final int hunkExpectedStart = Math.max(expectedIndex, change[0] - contextLines);
+            final int hunkActualStart = change[1] - (change[0] - hunkExpectedStart);
+            int expectedEnd;
+            int actualEnd;
+            int[] next = change;
+            // extends the hunk as long as the next change is close enough to share its context lines
+            do {
+                expectedEnd = next[0];
+                actualEnd = next[1];
+                while (expectedEnd < removed.length && removed[expectedEnd]) {
+                    expectedEnd++;
+                }
+                while (actualEnd < added.length && added[actualEnd]) {
+                    actualEnd++;
+                }
+                next = nextChange(expectedEnd, actualEnd);
+            } while (next != null && next[0] - expectedEnd <= 2L * contextLines);
+            final int unchangedAfter = Math.min(contextLines,
+                Math.min(removed.length - expectedEnd, added.length - actualEnd));
+            appendHunk(description, hunkExpectedStart, expectedEnd + unchangedAfter,
+                hunkActualStart, actualEnd + unchangedAfter);
+            expectedIndex = expectedEnd + unchangedAfter;
+            actualIndex = actualEnd + unchangedAfter;
+        }
+        return description.toString();
+    }
+
+    /**
+     * Finds the positions of the next changed lines, starting from the provided ones (which are aligned).
+     *
+     * @return The positions of the first changed line in both lists, or null if there are no more changes
+     */
+    private int[] nextChange(final int expectedFrom, final int actualFrom) {
+        int expectedIndex = expectedFrom;
+        int actualIndex = actualFrom;
+        while (expectedIndex < removed.length || actualIndex < added.length) {
+            if (expectedIndex < removed.length && removed[expectedIndex]
+                || actualIndex < added.length && added[actualIndex]) {
+                return new int[]{expectedIndex, actualIndex};
+            }
+            expectedIndex++;
+            actualIndex++;
+        }
+        return null;
+    }
+
+    private void appendHunk(final Description description, final int expectedStart, final int expectedEnd,
+                            final int actualStart, final int actualEnd) {
+        description.append(format("@@ -%s +%s @@\n",
+            range(expectedStart, expectedEnd), range(actualStart, actualEnd)));
+        int expectedIndex = expectedStart;
+        int actualIndex = actualStart;
+        while ((expectedIndex < expectedEnd || actualIndex < actualEnd) && !description.isFull()) {
+            if (expectedIndex < expectedEnd && removed[expectedIndex]) {
+                description.appendLine('-', expected.get(expectedIndex++));
+            } else if (actualIndex < actualEnd && added[actualIndex]) {
+                description.appendLine('+', actual.get(actualIndex++));
+            } else {
+                description.appendLine(' ', expected.get(expectedIndex++));
+                actualIndex++;
+            }
+        }
+    }
+
+    /**
+     * Describes the lines around the first difference as a single hunk, when the diff couldn't be computed: the
+     * following expected lines are all removed, and the following actual lines are all added, each taking about half
+     * of the remaining length of the description.
+     */
+    private void appendFirstDifference(final Description description, final int contextLines, final int maxLength) {
+        int first = 0;
+        while (first < expected.size() && first < actual.size() && expectedIds[first] == actualIds[first]) {
+            first++;
+        }
+        final int start = Math.max(0, first - contextLines);
+        long remaining = (long) maxLength - description.length() - FIRST_DIFFERENCE_ONLY.length() - HUNK_HEADER_LENGTH;
+        for (int i = start; i < first; i++) {
+            remaining -= expected.get(i).length() + 2;
+        }
+        final int expectedEnd = windowEnd(expected, first, remaining / 2);
+        final int actualEnd = windowEnd(actual, first, remaining / 2);
+        description.append(format("@@ -%s +%s @@\n", range(start, expectedEnd), range(start, actualEnd)));
+        for (int i = start; i < first; i++) {
+            description.appendLine(' ', expected.get(i));
+        }
+        for (int i = first; i < expectedEnd; i++) {
+            description.appendLine('-', expected.get(i));
+        }
+        for (int i = first; i < actualEnd; i++) {
+            description.appendLine('+', actual.get(i));
+        }
+        description.append(FIRST_DIFFERENCE_ONLY);
+    }
+
+    /**
+     * @return the end of the window of lines starting at `from` and holding about `length` characters
+     */
+    private static int windowEnd(final List<String> lines, final int from, final long length) {
+        int end = from;
+        long windowLength = 0;
+        while (end < lines.size() && windowLength + lines.get(end).length() + 2 <= length) {
+            windowLength += lines.get(end++).length() + 2;
+        }
+        return end;
+    }
+
+    /**
+     * Formats a range of lines like in unified diffs: the 1-based number of its first line (or of the line before an
+     * empty range), followed by its number of lines if it isn't a single line.
+     */
+    private static String range(final int start, final int end) {
+        final int count = end - start;
+        if (count == 1) {
+            return String.valueOf(start + 1);
+        }
+        return format("%d,%d", count == 0 ? start : start + 1, count);
+    }
+
+    /**
+     * Marks the lines which have to be removed from, or added to, the given ranges (ends excluded) to go from the
+     * expected lines to the actual ones.
+     */
+    private void compare(int expectedStart, int expectedEnd, int actualStart, int actualEnd) {
+        if (exhausted) {
+            return;
+        }
+        while (expectedStart < expectedEnd && actualStart < actualEnd
+            && expectedIds[expectedStart] == actualIds[actualStart]) {
+            expectedStart++;
+            actualStart++;
+        }
+        while (expectedStart < expectedEnd && actualStart < actualEnd
+            && expectedIds[expectedEnd - 1] == actualIds[actualEnd - 1]) {
+            expectedEnd--;
+            actualEnd--;
+        }
+        if (expectedStart == expectedEnd || actualStart == actualEnd) {
+            Arrays.fill(removed, expectedStart, expectedEnd, true);
+            Arrays.fill(added, actualStart, actualEnd, true);
+            return;
+        }
+        final int[] middle = middleSnake(expectedStart, expectedEnd, actualStart, actualEnd);
+        if (exhausted) {
+            return;
+        }
+        if (middle == null) {
+            Arrays.fill(removed, expectedStart, expectedEnd, true);
+            Arrays.fill(added, actualStart, actualEnd, true);
+            return;
+        }
+        compare(expectedStart, middle[0], actualStart, middle[1]);
+        compare(middle[0], expectedEnd, middle[1], actualEnd);
+    }
+
+    /**
+     * Searches the middle snake of the edit graph of the given ranges, walking the furthest reaching paths both
+     * forward from the start and backward from the end, until they overlap.
+     *
+     * @return The point (in both lists) where the shortest edit script can be split in 2 halves, or null if none is
+     * found (or if the maximum work is exceeded)
+     */
+    private int[] middleSnake(final int expectedStart, final int expectedEnd,
+                              final int actualStart, final int actualEnd) {
+        final int n = expectedEnd - expectedStart;
+        final int m = actualEnd - actualStart;
+        final int maxD = (n + m + 1) / 2;
+        final int offset = maxD;
+        final int length = 2 * maxD + 2;
+        final int[] forward = new int[length];
+        final int[] backward = new int[length];
+        Arrays.fill(forward, -1);
+        Arrays.fill(backward, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        final int delta = n - m;
+        final boolean oddDelta = delta % 2 != 0;
+        int forwardStart = 0;
+        int forwardEnd = 0;
+        int backwardStart = 0;
+        int backwardEnd = 0;
+        for (int d = 0; d < maxD; d++) {
+            if (work > maxWork) {
+                exhausted = true;
+                return null;
+            }
+            for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+                work++;
+                final int kOffset = offset + k;
+                int x = k == -d || k != d && forward[kOffset - 1] < forward[kOffset + 1]
+                    ? forward[kOffset + 1]
+                    : forward[kOffset - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && expectedIds[expectedStart + x] == actualIds[actualStart + y]) {
+                    x++;
+                    y++;
+                    work++;
+                }
+                forward[kOffset] = x;
+                if (x > n) {
+                    forwardEnd += 2;
+                } else if (y > m) {
+                    forwardStart += 2;
+                } else if (oddDelta) {
+                    final int reverseOffset = offset + delta - k;
+                    if (reverseOffset >= 0 && reverseOffset < length && backward[reverseOffset] != -1
+                        && x >= n - backward[reverseOffset]) {
+                        return new int[]{expectedStart + x, actualStart + y};
+                    }
+                }
+            }
+            for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+                work++;
+                final int kOffset = offset + k;
+                int x = k == -d || k != d && backward[kOffset - 1] < backward[kOffset + 1]
+                    ? backward[kOffset + 1]
+                    : backward[kOffset - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m
+                    && expectedIds[expectedEnd - x - 1] == actualIds[actualEnd - y - 1]) {
+                    x++;
+                    y++;
+                    work++;
+                }
+                backward[kOffset] = x;
+                if (x > n) {
+                    backwardEnd += 2;
+                } else if (y > m) {
+                    backwardStart += 2;
+                } else if (!oddDelta) {
+                    final int forwardOffset = offset + delta - k;
+                    if (forwardOffset >= 0 && forwardOffset < length && forward[forwardOffset] != -1) {
+                        final int forwardX = forward[forwardOffset];
+                        final int forwardY = offset + forwardX - forwardOffset;
+                        if (forwardX >= n - x) {
+                            return new int[]{expectedStart + forwardX, actualStart + forwardY};
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] ids(final List<String> lines, final Map<String, Integer> ids) {
+        final int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.computeIfAbsent(lines.get(i), line -> ids.size());
+        }
+        return result;
+    }
+
+    /**
+     * Description of the differences, truncated once it reaches its maximum length.
+     */
+    private static final class Description {
+        private final StringBuilder content = new StringBuilder();
+        private final int maxLength;
+        private boolean full = false;
+
+        Description(final int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        int length() {
+            return content.length();
+        }
+
+        void appendLine(final char type, final String line) {
+            append(type + line + "\n");
+        }
+
+        void append(final String text) {
+            if (full) {
+                return;
+            }
+            if (content.length() + text.length() > maxLength) {
+                content.append(text, 0, Math.max(0, maxLength - content.length()));
+                content.append(format("\n[... diff truncated after %d characters]", maxLength));
+                full = true;
+            } else {
+                content.append(text);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return content.toString();
+        }
+    }
+}
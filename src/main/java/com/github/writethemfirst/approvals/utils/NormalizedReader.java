@@ -0,0 +1,200 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * # NormalizedReader
+ *
+ * Reads a content character by character, normalizing its line endings the same way {@link
+ * StringUtils#sameContent(CharSequence, CharSequence)} does: `\r\n` line endings are read as `\n`, and the line endings
+ * found at the very end of the content are skipped.
+ *
+ * The content is decoded incrementally from its source through a buffer which is reused for the whole reading, so
+ * contents can be compared without ever being fully loaded in memory.
+ */
+public class NormalizedReader implements Closeable {
+    /**
+     * Value returned by {@link #read()} when the end of the content is reached.
+     */
+    public static final int END = -1;
+
+    private static final int BUFFER_SIZE = 8192;
+    private final Readable source;
+    private final CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+    private final int[] pushedBack = new int[2];
+    private int pushedBackCount = 0;
+    private int pendingLineFeeds = 0;
+    private boolean sourceEnded = false;
+    private boolean empty = true;
+
+    /**
+     * Constructs a NormalizedReader reading from the provided source.
+     *
+     * @param source The source of the content, which will be closed with this reader if it is {@link Closeable}
+     */
+    public NormalizedReader(final Readable source) {
+        this.source = source;
+        buffer.flip();
+    }
+
+    /**
+     * Reads the next character of the normalized content.
+     *
+     * @return The next character, or {@link #END} if the end of the content has been reached
+     * @throws IOException if the source can't be read
+     */
+    public int read() throws IOException {
+        if (pendingLineFeeds > 0) {
+            pendingLineFeeds--;
+            return '\n';
+        }
+        int lineFeeds = 0;
+        int c = readRaw();
+        while (c == '\n' || c == '\r') {
+            if (c == '\r') {
+                final int next = readRaw();
+                if (next != '\n') {
+                    pushBack(next);
+                    break;
+                }
+            }
+            lineFeeds++;
+            c = readRaw();
+        }
+        if (c == END) {
+            return END;
+        }
+        if (lineFeeds > 0) {
+            pushBack(c);
+            pendingLineFeeds = lineFeeds - 1;
+            return '\n';
+        }
+        return c;
+    }
+
+    /**
+     * Compares the rest of this normalized content with the rest of another one, stopping at the first difference.
+     *
+     * @param other The other content to compare with
+     * @return true if both contents are the same once normalized
+     * @throws IOException if one of the sources can't be read
+     */
+    public boolean sameContent(final NormalizedReader other) throws IOException {
+        int c;
+        do {
+            c = read();
+            if (c != other.read()) {
+                return false;
+            }
+        } while (c != END);
+        // an empty content has a single empty line, while a content made of line endings only has no line at all
+        return empty == other.empty;
+    }
+
+    /**
+     * Writes the rest of the normalized content to the provided writer.
+     *
+     * @param writer The writer in which the content should be written
+     * @throws IOException if the source can't be read or the writer can't be written
+     */
+    public void transferTo(final Writer writer) throws IOException {
+        for (int c = read(); c != END; c = read()) {
+            writer.write(c);
+        }
+    }
+
+    /**
+     * Computes a SHA-256 digest of the rest of the normalized content. Two contents have the same digest if they would
+     * be considered the same by {@link #sameContent(NormalizedReader)}.
+     *
+     * @return The digest as an hexadecimal String
+     * @throws IOException if the source can't be read
+     */
+    public String digest() throws IOException {
+        final MessageDigest digest = sha256();
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        int length = 0;
+        for (int c = read(); c != END; c = read()) {
+            if (length == bytes.length) {
+                digest.update(bytes, 0, length);
+                length = 0;
+            }
+            bytes[length++] = (byte) (c >> 8);
+            bytes[length++] = (byte) c;
+        }
+        digest.update(bytes, 0, length);
+        // an empty content has a single empty line, while a content made of line endings only has no line at all
+        digest.update((byte) (empty ? 0 : 1));
+        final StringBuilder hexadecimal = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hexadecimal.append(String.format("%02x", b));
+        }
+        return hexadecimal.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is supported by all Java platforms", e);
+        }
+    }
+
+    /**
+     * Checks if the source was completely empty. It is only relevant once the end of the content has been reached.
+     *
+     * @return true if not a single character, not even a line ending, could be read from the source
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source instanceof Closeable) {
+            ((Closeable) source).close();
+        }
+    }
+
+    private void pushBack(final int c) {
+        pushedBack[pushedBackCount++] = c;
+    }
+
+    private int readRaw() throws IOException {
+        if (pushedBackCount > 0) {
+            return pushedBack[--pushedBackCount];
+        }
+        while (!buffer.hasRemaining()) {
+            if (sourceEnded) {
+                return END;
+            }
+            buffer.clear();
+            sourceEnded = source.read(buffer) < 0;
+            buffer.flip();
+        }
+        empty = false;
+        return buffer.get();
+    }
+}
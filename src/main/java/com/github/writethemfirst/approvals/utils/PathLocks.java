@@ -0,0 +1,266 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * # PathLocks
+ *
+ * Locks serializing the verifications of the same approval files (when tests are run in parallel, or when the same test
+ * is repeated), while verifications of other files run concurrently.
+ *
+ * Within the JVM, the locks are striped: a fixed number of locks is shared by all the paths, according to their hash.
+ * Two verifications of different files may thus wait for each other, but only while they read or write their files.
+ * The number of stripes can be set with the `APPROVALS_LOCK_STRIPES` system property (256 by default).
+ *
+ * Other JVMs (like forked surefire or Gradle workers) are excluded by a {@link FileLock} on a lock file named after the
+ * hash of the path, in the `approvals-java-locks` folder of the temporary directory. Those lock files are never
+ * removed, since another JVM could be about to lock them. If they can't be locked, only the lock within the JVM is
+ * used.
+ *
+ * A thread already holding the lock of a path can lock it again, as well as any path sharing its lock file. It can
+ * also lock other paths while holding a lock, as long as it waits for them in a fixed order: the locks are ordered by
+ * stripe, and then by lock file. A lock coming before one already held by the thread is only taken if it is free, and
+ * a `RuntimeException` is thrown otherwise, since waiting for it could deadlock with a thread locking the same paths
+ * the other way round.
+ *
+ * The number of times a lock had to be waited for is given by {@link #contentions()}. It is also printed in `System.err`
+ * when the JVM stops (if any) when the `APPROVALS_LOCK_CONTENTIONS` system property is set to `true`.
+ */
+public final class PathLocks {
+    private static final ReentrantLock[] STRIPES = stripes(Integer.getInteger("APPROVALS_LOCK_STRIPES", 256));
+    private static final Path LOCKS_FOLDER = Paths.get(System.getProperty("java.io.tmpdir"), "approvals-java-locks");
+    private static final AtomicLong CONTENTIONS = new AtomicLong();
+    private static final AtomicLong WAITED_NANOS = new AtomicLong();
+    private static final ThreadLocal<List<Integer>> HELD = ThreadLocal.withInitial(ArrayList::new);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (CONTENTIONS.get() > 0 && "true".equals(System.getProperty("APPROVALS_LOCK_CONTENTIONS"))) {
+                System.err.println(format("Approval files were locked by another verification %d times (%d ms waited)",
+                    CONTENTIONS.get(), WAITED_NANOS.get() / 1_000_000));
+            }
+        }, "approvals-locks-report"));
+    }
+
+    private PathLocks() {
+    }
+
+    /**
+     * Runs an action while holding the lock of a path, both within the JVM and across JVMs. The lock is reentrant.
+     *
+     * @param path   The path to lock (usually the *approved* file or folder)
+     * @param action The action reading or writing the files associated to that path
+     * @param <T>    The type of the result of the action
+     * @return the result of the action
+     * @throws RuntimeException if the lock is taken by another thread or JVM, and comes before a lock already held by
+     *                          the current thread
+     */
+    public static <T> T locking(final Path path, final Supplier<T> action) {
+        final int hash = hash(path);
+        final List<Integer> held = HELD.get();
+        if (held.contains(hash)) {
+            return action.get();
+        }
+        final boolean ordered = held.stream().allMatch(heldHash -> compare(heldHash, hash) < 0);
+        final ReentrantLock lock = lockFor(hash);
+        final long start = System.nanoTime();
+        boolean contended = !lock.tryLock();
+        if (contended) {
+            if (!ordered) {
+                throw outOfOrder(path);
+            }
+            lock.lock();
+        }
+        try {
+            final FileChannel channel = lockFile(hash);
+            try {
+                contended |= acquire(channel, path, ordered);
+                count(contended, start);
+                held.add(hash);
+                try {
+                    return action.get();
+                } finally {
+                    held.remove(held.size() - 1);
+                }
+            } finally {
+                release(channel);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the lock of a path, like {@link #locking(Path, Supplier)}.
+     *
+     * @param path   The path to lock
+     * @param action The action reading or writing the files associated to that path
+     */
+    public static void locking(final Path path, final Runnable action) {
+        locking(path, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the number of times a lock had to be waited for since the JVM started
+     */
+    public static long contentions() {
+        return CONTENTIONS.get();
+    }
+
+    /**
+     * Only use this method from test code, to check that the lock file of a path is locked.
+     */
+    static Path lockFileOf(final Path path) {
+        return lockFileOf(hash(path));
+    }
+
+    /**
+     * Only use this method from test code, to find different paths sharing the same stripe.
+     */
+    static boolean sameStripe(final Path first, final Path second) {
+        return stripeOf(hash(first)) == stripeOf(hash(second));
+    }
+
+    /**
+     * Only use this method from test code, to find paths whose locks must be waited for in a given order.
+     */
+    static boolean lockedBefore(final Path first, final Path second) {
+        return compare(hash(first), hash(second)) < 0;
+    }
+
+    private static Path lockFileOf(final int hash) {
+        return LOCKS_FOLDER.resolve(format("%08x.lock", hash));
+    }
+
+    private static int hash(final Path path) {
+        return path.toAbsolutePath().normalize().toString().hashCode();
+    }
+
+    /**
+     * Selects the stripe of a path from the same hash as its lock file, so that a lock file is only locked by one
+     * thread of the JVM at a time.
+     */
+    private static ReentrantLock lockFor(final int hash) {
+        return STRIPES[stripeOf(hash)];
+    }
+
+    private static int stripeOf(final int hash) {
+        return (hash ^ (hash >>> 16)) & (STRIPES.length - 1);
+    }
+
+    /**
+     * Compares 2 path hashes in the order their locks must be waited for: by stripe, and then by lock file.
+     */
+    private static int compare(final int first, final int second) {
+        final int stripes = Integer.compare(stripeOf(first), stripeOf(second));
+        return stripes != 0 ? stripes : Integer.compare(first, second);
+    }
+
+    /**
+     * Opens the lock file of a path hash, or returns null if it can't be.
+     */
+    private static FileChannel lockFile(final int hash) {
+        final Path lockFile = lockFileOf(hash);
+        try {
+            Files.createDirectories(LOCKS_FOLDER);
+            return FileChannel.open(lockFile, CREATE, WRITE);
+        } catch (final IOException e) {
+            System.err.println(format("Could not open the lock file <%s>, other JVMs are not excluded", lockFile));
+            return null;
+        }
+    }
+
+    /**
+     * Locks a lock file until it is closed, only waiting for it if `wait` is true.
+     *
+     * @return true if the file was locked by another JVM
+     */
+    private static boolean acquire(final FileChannel channel, final Path path, final boolean wait) {
+        if (channel == null) {
+            return false;
+        }
+        try {
+            if (channel.tryLock() == null) {
+                if (!wait) {
+                    throw outOfOrder(path);
+                }
+                channel.lock();
+                return true;
+            }
+        } catch (final IOException e) {
+            System.err.println(format("Could not lock <%s>, other JVMs are not excluded", path));
+        }
+        return false;
+    }
+
+    /**
+     * Closes a lock file, which releases its lock.
+     */
+    private static void release(final FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                // the lock is released by the OS anyway when the JVM stops
+            }
+        }
+    }
+
+    private static RuntimeException outOfOrder(final Path path) {
+        return new RuntimeException(format("Can't wait for the lock of <%s> while holding the lock of another path "
+            + "which must be taken after it.", path));
+    }
+
+    private static void count(final boolean contended, final long start) {
+        if (contended) {
+            CONTENTIONS.incrementAndGet();
+            WAITED_NANOS.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates the locks, rounding their number to a power of 2 so that a stripe can be selected with a mask.
+     */
+    private static ReentrantLock[] stripes(final int count) {
+        final int size = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+        final ReentrantLock[] locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static java.lang.String.join;
+
+/**
+ * # ProcessLauncher
+ *
+ * Runs external commands (like diff tools) in the background, so that the calling thread doesn't wait for them to be
+ * closed.
+ *
+ * - A command identical to one which is still waiting or running is ignored, so that the same approved and received
+ * files are never opened twice at the same time.
+ * - At most `maxProcesses` commands run at the same time, the next ones waiting for one of them to end.
+ * - The commands waiting or running when the JVM stops are awaited by a shutdown hook, so that they are still run. The
+ * JVM waits for them at most `REPORTER_PROCESSES_DRAIN_SECONDS` seconds (a system property, 60 by default): the
+ * commands still waiting then are dropped, and their number is printed in `System.err`.
+ * - A command launched after the launcher was drained (by another shutdown hook for instance) is run in the calling
+ * thread, since there is no background thread left to run it.
+ *
+ * The maximum number of processes of the {@link #shared()} launcher can be set with the `MAX_REPORTER_PROCESSES`
+ * system property (4 by default).
+ */
+public class ProcessLauncher {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private final Starter starter;
+    private final ExecutorService executor;
+    private final Set<List<String>> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Starts a process for a command.
+     */
+    @FunctionalInterface
+    interface Starter {
+        Process start(List<String> command) throws IOException;
+    }
+
+    /**
+     * Only use this constructor from test code so the processes can be mocked.
+     */
+    ProcessLauncher(final int maxProcesses, final Starter starter) {
+        this.starter = starter;
+        this.executor = Executors.newFixedThreadPool(maxProcesses, task -> {
+            final Thread thread = new Thread(task, "approvals-launcher-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the launcher shared by the whole JVM, drained when the JVM stops
+     */
+    public static ProcessLauncher shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Runs a command in the background, unless the same command is already waiting or running.
+     *
+     * @param command The executable followed by its arguments
+     * @return true if the command will be run, false if it was ignored
+     */
+    public boolean launch(final List<String> command) {
+        if (!pending.add(command)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> run(command));
+        } catch (final RejectedExecutionException e) {
+            run(command);
+        }
+        return true;
+    }
+
+    private void run(final List<String> command) {
+        try {
+            System.out.printf("Running command [%s]%n", join(" ", command));
+            starter.start(command).waitFor();
+        } catch (final IOException e) {
+            System.err.println(format("Could not run command [%s]", join(" ", command)));
+            System.err.println(e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.remove(command);
+        }
+    }
+
+    /**
+     * Waits for all the commands launched to be ended, no new command being accepted afterwards. If the timeout elapses
+     * before, the commands still waiting are dropped and the ones running aren't waited for anymore.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return true if all the commands ended, false if the timeout elapsed before
+     */
+    boolean drain(final long timeout, final TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(timeout, unit)) {
+            return true;
+        }
+        final int dropped = executor.shutdownNow().size();
+        if (dropped > 0) {
+            System.err.println(format("%d reporter commands were dropped, since the previous ones were still running "
+                + "after %d ms", dropped, unit.toMillis(timeout)));
+        }
+        return false;
+    }
+
+    private static final class Shared {
+        static final ProcessLauncher INSTANCE = new ProcessLauncher(
+            Integer.getInteger("MAX_REPORTER_PROCESSES", 4),
+            command -> new ProcessBuilder(command).inheritIO().start());
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    INSTANCE.drain(Long.getLong("REPORTER_PROCESSES_DRAIN_SECONDS", 60), TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "approvals-launcher-drain"));
+        }
+    }
+}
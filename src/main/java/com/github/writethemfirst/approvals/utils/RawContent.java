@@ -0,0 +1,153 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.charset.Charset.defaultCharset;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.size;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * # RawContent
+ *
+ * Source of the raw bytes of a file, read window by window from its {@link FileChannel}, and provided as characters
+ * (one character per byte) so that it can be read by a {@link NormalizedReader}.
+ *
+ * Only a single window of the file is kept in memory, so big files can be compared whatever their size. The file isn't
+ * mapped in memory: mapped buffers are only released by the garbage collector, and on Windows a mapped file can't be
+ * replaced or deleted until then, while the compared files are often removed or approved right after the comparison.
+ * The file is released as soon as the content is closed.
+ *
+ * Since `\r` and `\n` are single bytes in the charsets compatible with ASCII, normalizing the line endings of the raw
+ * bytes gives the same result as normalizing them after decoding. For valid input, two files are thus considered the
+ * same when read through `RawContent` if and only if they would be through {@link FileUtils#silentReader(Path)}. The
+ * raw comparison is stricter for malformed input though: different invalid byte sequences, which decoding would all
+ * turn into the same replacement character, are seen as different. It's up to the caller to check {@link
+ * #isWorthReadingRaw(Path, Path)} before relying on it.
+ */
+public class RawContent implements Readable, Closeable {
+    private static final long DEFAULT_THRESHOLD = 8 * 1024 * 1024;
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final boolean SUPPORTED = Arrays.equals("\r\n".getBytes(defaultCharset()), new byte[]{'\r', '\n'});
+
+    private final FileChannel channel;
+    private final ByteBuffer window;
+    private boolean ended = false;
+
+    /**
+     * Opens the content of the provided file.
+     *
+     * @param file The file to be read
+     * @throws IOException if the file can't be opened
+     */
+    public RawContent(final Path file) throws IOException {
+        this(file, WINDOW_SIZE);
+    }
+
+    RawContent(final Path file, final int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, READ);
+        this.window = ByteBuffer.allocate(windowSize);
+        ((Buffer) window).flip();
+    }
+
+    /**
+     * Checks if the provided files should be compared through their raw contents: they both need to be regular files,
+     * and at least one of them must be bigger than the threshold (see {@link #exceedsThreshold(Path...)}).
+     *
+     * The default charset (used to read all the files) also needs to encode line endings as single ASCII bytes.
+     *
+     * @param first  The first file to be compared
+     * @param second The second file to be compared
+     * @return true if the files should be compared through their raw contents
+     */
+    public static boolean isWorthReadingRaw(final Path first, final Path second) {
+        return SUPPORTED && isRegularFile(first) && isRegularFile(second) && exceedsThreshold(first, second);
+    }
+
+    /**
+     * Checks if at least one of the provided files is bigger than the threshold configured by the
+     * `MAPPED_COMPARISON_THRESHOLD` system property (in bytes, 8MB by default). Such files shouldn't be loaded in
+     * memory.
+     *
+     * @param files The files to be compared
+     * @return true if one of the files (which exist) is bigger than the threshold
+     */
+    public static boolean exceedsThreshold(final Path... files) {
+        final long threshold = Long.getLong("MAPPED_COMPARISON_THRESHOLD", DEFAULT_THRESHOLD);
+        for (final Path file : files) {
+            if (sizeOf(file) >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long sizeOf(final Path file) {
+        try {
+            return size(file);
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public int read(final CharBuffer target) throws IOException {
+        int count = 0;
+        while (target.hasRemaining()) {
+            if (!window.hasRemaining() && !fill()) {
+                return count == 0 ? -1 : count;
+            }
+            final int length = Math.min(target.remaining(), window.remaining());
+            for (int i = 0; i < length; i++) {
+                target.put((char) (window.get() & 0xFF));
+            }
+            count += length;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the next window of the file.
+     *
+     * @return false if the end of the file is reached
+     */
+    private boolean fill() throws IOException {
+        if (ended) {
+            return false;
+        }
+        ((Buffer) window).clear();
+        final int read = channel.read(window);
+        ((Buffer) window).flip();
+        ended = read < 0;
+        return !ended;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
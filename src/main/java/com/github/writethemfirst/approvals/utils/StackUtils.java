@@ -18,14 +18,8 @@
 package com.github.writethemfirst.approvals.utils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
-import static java.lang.String.format;
-import static java.lang.Thread.currentThread;
-import static java.util.Arrays.stream;
 
 /**
  * # StackUtils
@@ -35,6 +29,9 @@ import static java.util.Arrays.stream;
  *
  * Those methods allow to retrieve information to be used for generating the default names of files and folders to be
  * used by the *Approval Files*.
+ *
+ * The stack is walked lazily from its top (see {@link CallerFrames}), and each search stops at the first matching
+ * frame, so the cost doesn't depend on the depth of the stack below the test method.
  */
 public class StackUtils {
 
@@ -42,7 +39,7 @@ public class StackUtils {
      * Returns the caller class of the first potential reference class found by searching the current thread
      * stacktrace.
      *
-     * We consider the caller class to be the first one found in the current thread stacktrace after finding the first
+     * We consider the caller class to be the first new class found in the current thread stacktrace after finding a
      * potential reference class.
      *
      * @param potentialReferenceClasses An array of all potential reference classes to use to search for a caller class.
@@ -51,52 +48,25 @@ public class StackUtils {
      * @return The caller class name of the first potential reference class found in the current stack trace
      */
     public static String callerClass(final Class<?>... potentialReferenceClasses) {
-        // FIXME: Rewrite using dropWhile when switching to Java 9
-        final List<String> classesInStack = distinctClassesInStack();
-        return firstMatchingCallerClass(classesInStack, potentialReferenceClasses);
+        return search(false, potentialReferenceClasses).className;
     }
 
     /**
-     * Returns the caller class (from the classes in the current stack trace) of the first matching reference class
-     * (from the potential reference classes provided).
+     * Returns both the caller class of the first potential reference class found by searching the current thread
+     * stacktrace (see {@link #callerClass(Class[])}), and the caller method in that class (see {@link
+     * #callerMethod(String)}).
+     *
+     * Both are resolved during a single walk of the stack, which is cheaper than calling both methods one after the
+     * other.
      *
-     * @param classesInStack            A list of all distinct classes' names from the current thread stacktrace
      * @param potentialReferenceClasses An array of all potential reference classes to use to search for a caller class.
      *                                  The first class which is found in the current stack trace will be used as
      *                                  reference
-     * @return The name of the caller class of the first matching reference class
+     * @return The {@link Caller} of the first potential reference class found in the current stack trace
      */
-    private static String firstMatchingCallerClass(final List<String> classesInStack, final Class<?>[] potentialReferenceClasses) {
-        final ArrayList<String> reversedStack = new ArrayList<>(classesInStack);
-        Collections.reverse(reversedStack);
-        final Optional<String> lastReferenceName = reversedStack.stream()
-            .filter(className -> stream(potentialReferenceClasses).anyMatch(
-                referenceClass -> className.equals(referenceClass.getName())))
-            .findFirst();
-
-        if (lastReferenceName.isPresent()) {
-            final int referenceIndex = classesInStack.indexOf(lastReferenceName.get());
-            if (referenceIndex + 1 < classesInStack.size()) {
-                return classesInStack.get(referenceIndex + 1);
-            } else {
-                System.err.println("Reference class is found but appears to have no parent in the current stack trace...");
-            }
-        } else {
-            System.err.println("Can't locate any of the provided reference classes in the current stack trace...");
-        }
-        return "";
-    }
-
-    /**
-     * Parses the current thread stacktrace and returns a list of all distinct class names found in it.
-     *
-     * @return A List containing all distinct classes' names from the current thread stacktrace
-     */
-    private static List<String> distinctClassesInStack() {
-        return stream(currentThread().getStackTrace())
-            .map(StackTraceElement::getClassName)
-            .distinct()
-            .collect(Collectors.toList());
+    public static Caller caller(final Class<?>... potentialReferenceClasses) {
+        final CallerSearch search = search(true, potentialReferenceClasses);
+        return new Caller(search.className, search.methodName);
     }
 
     /**
@@ -108,16 +78,120 @@ public class StackUtils {
      * If found in the current thread stacktrace, the method name will be returned, wrapped in an `Optional`. If no
      * method can be found, an empty `Optional` will be returned.
      *
-     * @param referenceClass The `referenceClass` for which we want to search the caller method in the current thread
-     *                       stacktrace
+     * @param referenceClassName The `referenceClass` for which we want to search the caller method in the current
+     *                           thread stacktrace
      * @return An `Optional` object containing either the caller method name (as a `String`) or an empty value if it
      * cannot be found
      */
     public static Optional<String> callerMethod(final String referenceClassName) {
-        return stream(currentThread().getStackTrace())
-            .filter(e -> e.getClassName().equals(referenceClassName))
-            .filter(e -> !e.getMethodName().startsWith("lambda$"))
-            .map(StackTraceElement::getMethodName)
-            .findFirst();
+        final CallerSearch search = new CallerSearch(referenceClassName);
+        CallerFrames.walk(search);
+        return Optional.ofNullable(search.methodName);
+    }
+
+    /**
+     * Walks the current thread stacktrace searching for the caller of the potential reference classes, and logs in
+     * `System.err` if it can't be found.
+     *
+     * @param withMethod                true if the walk should go on until the caller method has been found as well
+     * @param potentialReferenceClasses An array of all potential reference classes to use to search for a caller class
+     * @return The search, holding the caller class name (empty if not found) and the caller method name if requested
+     */
+    private static CallerSearch search(final boolean withMethod, final Class<?>[] potentialReferenceClasses) {
+        final CallerSearch search = new CallerSearch(withMethod, potentialReferenceClasses);
+        CallerFrames.walk(search);
+        if (search.className.isEmpty()) {
+            if (search.referenceFound) {
+                System.err.println("Reference class is found but appears to have no parent in the current stack trace...");
+            } else {
+                System.err.println("Can't locate any of the provided reference classes in the current stack trace...");
+            }
+        }
+        return search;
+    }
+
+    /**
+     * The caller of some reference classes: the name of the caller class, and if it could be found, the name of the
+     * caller method in that class.
+     */
+    public static final class Caller {
+        public final String className;
+        private final String methodName;
+
+        Caller(final String className, final String methodName) {
+            this.className = className;
+            this.methodName = methodName;
+        }
+
+        /**
+         * @return The caller method name, or an empty value if it cannot be found
+         */
+        public Optional<String> methodName() {
+            return Optional.ofNullable(methodName);
+        }
+    }
+
+    /**
+     * {@link FrameVisitor} searching for the caller class of some reference classes, and then for the first method of
+     * that class which isn't a lambda.
+     */
+    private static final class CallerSearch implements FrameVisitor {
+        private final Class<?>[] potentialReferenceClasses;
+        private final boolean withMethod;
+        private final List<String> classesAboveReference = new ArrayList<>();
+        private boolean referenceFound = false;
+        private String className = "";
+        private String methodName;
+
+        /**
+         * Searches for the caller class of the reference classes, and its caller method if `withMethod` is true.
+         */
+        CallerSearch(final boolean withMethod, final Class<?>[] potentialReferenceClasses) {
+            this.potentialReferenceClasses = potentialReferenceClasses;
+            this.withMethod = withMethod;
+        }
+
+        /**
+         * Searches only for the caller method of an already known class.
+         */
+        CallerSearch(final String className) {
+            this(true, new Class<?>[0]);
+            this.className = className;
+        }
+
+        @Override
+        public boolean visit(final String frameClassName, final String frameMethodName) {
+            if (className.isEmpty()) {
+                if (isReference(frameClassName)) {
+                    referenceFound = true;
+                    return false;
+                }
+                if (!referenceFound) {
+                    classesAboveReference.add(frameClassName);
+                    return false;
+                }
+                if (classesAboveReference.contains(frameClassName)) {
+                    return false;
+                }
+                className = frameClassName;
+                if (!withMethod) {
+                    return true;
+                }
+            }
+            if (frameClassName.equals(className) && !frameMethodName.startsWith("lambda$")) {
+                methodName = frameMethodName;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isReference(final String frameClassName) {
+            for (final Class<?> referenceClass : potentialReferenceClasses) {
+                if (frameClassName.equals(referenceClass.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
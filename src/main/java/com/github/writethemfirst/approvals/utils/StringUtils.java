@@ -21,14 +21,75 @@ import java.util.Arrays;
 import java.util.List;
 
 import static java.lang.String.format;
-import static java.util.stream.IntStream.range;
 
 public class StringUtils {
-    public static boolean sameContent(String expected, String actual) {
-        final List<String> expectedElements = splitOnLineEndings(expected);
-        final List<String> actualElements = splitOnLineEndings(actual);
-        return expectedElements.size() == actualElements.size() &&
-            range(0, expectedElements.size()).allMatch(i -> expectedElements.get(i).equals(actualElements.get(i)));
+    /**
+     * Checks if both contents are the same, line by line, ignoring the differences of line endings (`\r\n` and `\n`
+     * are considered equal) and the empty lines at the end of the contents.
+     *
+     * That gives the same result as comparing the lists returned by {@link #splitOnLineEndings(String)}, but the
+     * contents are compared in a single pass with a cursor on each of them, which stops at the first difference and
+     * doesn't allocate anything.
+     *
+     * @param expected The first content to compare
+     * @param actual   The second content to compare
+     * @return true if both contents have the same lines
+     */
+    public static boolean sameContent(final CharSequence expected, final CharSequence actual) {
+        final int expectedEnd = endWithoutTrailingLineEndings(expected);
+        final int actualEnd = endWithoutTrailingLineEndings(actual);
+        if (expectedEnd == 0 || actualEnd == 0) {
+            // an empty content has a single empty line, while a content made of line endings only has no line at all
+            return expectedEnd == actualEnd && (expected.length() == 0) == (actual.length() == 0);
+        }
+        int expectedIndex = 0;
+        int actualIndex = 0;
+        while (expectedIndex < expectedEnd && actualIndex < actualEnd) {
+            if (isCarriageReturnLineFeed(expected, expectedIndex, expectedEnd)) {
+                expectedIndex++;
+            }
+            if (isCarriageReturnLineFeed(actual, actualIndex, actualEnd)) {
+                actualIndex++;
+            }
+            if (expected.charAt(expectedIndex) != actual.charAt(actualIndex)) {
+                return false;
+            }
+            expectedIndex++;
+            actualIndex++;
+        }
+        return expectedIndex == expectedEnd && actualIndex == actualEnd;
+    }
+
+    /**
+     * Returns the length of the content once all its trailing line endings have been removed.
+     */
+    private static int endWithoutTrailingLineEndings(final CharSequence content) {
+        int end = content.length();
+        while (end > 0 && content.charAt(end - 1) == '\n') {
+            end--;
+            if (end > 0 && content.charAt(end - 1) == '\r') {
+                end--;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Checks if a `\r\n` line ending starts at `index`, before `end`.
+     */
+    private static boolean isCarriageReturnLineFeed(final CharSequence content, final int index, final int end) {
+        return content.charAt(index) == '\r' && index + 1 < end && content.charAt(index + 1) == '\n';
+    }
+
+    /**
+     * Returns a view of both contents, one after the other, without copying them.
+     *
+     * @param first  The beginning of the content
+     * @param second The end of the content
+     * @return A CharSequence reading from `first`, then from `second`
+     */
+    public static CharSequence concat(final CharSequence first, final CharSequence second) {
+        return new Concatenation(first, second);
     }
 
     public static List<String> splitOnLineEndings(final String s) {
@@ -51,6 +112,35 @@ public class StringUtils {
         }
     }
 
+    /**
+     * Describes the differences between both contents for an error message: the first different line is described
+     * like in {@link #describeDifferences(String, String)}, followed by a unified diff of the contents (see {@link
+     * LineDiff}), instead of both complete contents. The work spent on the diff is bounded according to `maxLength`
+     * (see {@link LineDiff#workFor(int, int)}): beyond it, only the lines after the first difference are shown.
+     *
+     * @param expected     The content expected
+     * @param actual       The content actually found
+     * @param contextLines The number of unchanged lines to show before and after each change
+     * @param maxLength    The maximum length of the unified diff, after which it is truncated
+     * @return The description of the differences
+     */
+    public static String describeDifferences(final String expected, final String actual,
+                                             final int contextLines, final int maxLength) {
+        final List<String> expectedList = splitOnLineEndings(expected);
+        final List<String> actualList = splitOnLineEndings(actual);
+        final int commonSize = Math.min(expectedList.size(), actualList.size());
+        String firstDifference = format("expected %d lines but was %d lines", expectedList.size(), actualList.size());
+        for (int i = 0; i < commonSize; i++) {
+            if (!expectedList.get(i).equals(actualList.get(i))) {
+                firstDifference = describeDifferentLines(expectedList.get(i), actualList.get(i), i);
+                break;
+            }
+        }
+        return format("%s%n%s", firstDifference,
+            new LineDiff(expectedList, actualList, LineDiff.workFor(maxLength, expectedList.size() + actualList.size()))
+                .unified(contextLines, maxLength));
+    }
+
     private static String describeDifferentLines(final String expected, final String actual, final Integer lineIndex) {
         final String prefix = greatestCommonPrefix(expected, actual);
         final String suffix = greatestCommonSuffix(expected.substring(prefix.length()), actual.substring(prefix.length()));
@@ -90,4 +180,38 @@ public class StringUtils {
         }
         return a.substring(aLength - minLength);
     }
+
+    /**
+     * View of 2 contents, one after the other. It is only materialized when {@link #toString()} is called.
+     */
+    private static final class Concatenation implements CharSequence {
+        private final CharSequence first;
+        private final CharSequence second;
+
+        Concatenation(final CharSequence first, final CharSequence second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int length() {
+            return first.length() + second.length();
+        }
+
+        @Override
+        public char charAt(final int index) {
+            final int firstLength = first.length();
+            return index < firstLength ? first.charAt(index) : second.charAt(index - firstLength);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder(length()).append(first).append(second).toString();
+        }
+    }
 }
@@ -0,0 +1,205 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.nio.file.Path;
+
+/**
+ * # FlightEvents
+ *
+ * Factory of the {@link FlightEvent}s emitted around the approval operations, so that they can be seen in the
+ * recordings of the JDK Flight Recorder.
+ *
+ * That multi-release version of the class (used on Java 11+) returns actual Flight Recorder events, all in the
+ * "Approvals" category. An event is only started if it is enabled: otherwise, {@link #NONE} is returned, so that nothing
+ * is done when no recording is running.
+ */
+public final class FlightEvents {
+    /**
+     * The event returned when nothing is recorded: its methods do nothing.
+     */
+    public static final FlightEvent NONE = new NoEvent();
+
+    private FlightEvents() {
+    }
+
+    /**
+     * @return an event around the verification of an output against its *approved* file
+     */
+    public static FlightEvent verification() {
+        return begin(new Verification());
+    }
+
+    /**
+     * @return an event around the comparison of a folder with its *approved* folder
+     */
+    public static FlightEvent folderComparison() {
+        return begin(new FolderComparison());
+    }
+
+    /**
+     * @return an event around the reading of a file
+     */
+    public static FlightEvent fileRead() {
+        return begin(new FileRead());
+    }
+
+    /**
+     * @return an event around the writing (or copy) of a file
+     */
+    public static FlightEvent fileWrite() {
+        return begin(new FileWrite());
+    }
+
+    /**
+     * @return an event around the search for an executable in a folder
+     */
+    public static FlightEvent executableSearch() {
+        return begin(new ExecutableSearch());
+    }
+
+    /**
+     * @return an event around the execution of an external command
+     */
+    public static FlightEvent commandExecution() {
+        return begin(new CommandExecution());
+    }
+
+    private static FlightEvent begin(final ApprovalEvent event) {
+        if (!event.isEnabled()) {
+            return NONE;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Category("Approvals")
+    abstract static class ApprovalEvent extends Event implements FlightEvent {
+        @Label("Path")
+        String path;
+
+        @Label("Approved Size")
+        @DataAmount
+        long approvedSize;
+
+        @Label("Actual Size")
+        @DataAmount
+        long actualSize;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public FlightEvent path(final Path path) {
+            this.path = String.valueOf(path);
+            return this;
+        }
+
+        @Override
+        public FlightEvent approvedSize(final long size) {
+            this.approvedSize = size;
+            return this;
+        }
+
+        @Override
+        public FlightEvent actualSize(final long size) {
+            this.actualSize = size;
+            return this;
+        }
+
+        @Override
+        public FlightEvent outcome(final String outcome) {
+            this.outcome = outcome;
+            return this;
+        }
+    }
+
+    @Name("com.github.writethemfirst.approvals.Verification")
+    @Label("Approval Verification")
+    @Description("Verification of an output against its approved file")
+    static final class Verification extends ApprovalEvent {
+    }
+
+    @Name("com.github.writethemfirst.approvals.FolderComparison")
+    @Label("Approval Folder Comparison")
+    @Description("Comparison of the files of a folder with the approved ones")
+    static final class FolderComparison extends ApprovalEvent {
+    }
+
+    @Name("com.github.writethemfirst.approvals.FileRead")
+    @Label("Approval File Read")
+    @Description("Reading of an approval file")
+    static final class FileRead extends ApprovalEvent {
+    }
+
+    @Name("com.github.writethemfirst.approvals.FileWrite")
+    @Label("Approval File Write")
+    @Description("Writing or copy of an approval file, skipped if it already has the same content")
+    static final class FileWrite extends ApprovalEvent {
+    }
+
+    @Name("com.github.writethemfirst.approvals.ExecutableSearch")
+    @Label("Approval Executable Search")
+    @Description("Search for the executable of a reporter in a folder")
+    static final class ExecutableSearch extends ApprovalEvent {
+    }
+
+    @Name("com.github.writethemfirst.approvals.CommandExecution")
+    @Label("Approval Command Execution")
+    @Description("Execution of the external command of a reporter")
+    static final class CommandExecution extends ApprovalEvent {
+    }
+
+    private static final class NoEvent implements FlightEvent {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public FlightEvent path(final Path path) {
+            return this;
+        }
+
+        @Override
+        public FlightEvent approvedSize(final long size) {
+            return this;
+        }
+
+        @Override
+        public FlightEvent actualSize(final long size) {
+            return this;
+        }
+
+        @Override
+        public FlightEvent outcome(final String outcome) {
+            return this;
+        }
+
+        @Override
+        public void commit() {
+        }
+    }
+}
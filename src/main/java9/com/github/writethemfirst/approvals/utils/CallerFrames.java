@@ -0,0 +1,43 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+/**
+ * # CallerFrames
+ *
+ * Walks the frames of the current thread stack, from the most recent call to the oldest one.
+ *
+ * That Java 9+ version of the class relies on `StackWalker`: frames are materialized lazily, so only the top of the
+ * stack is actually visited when the {@link FrameVisitor} stops the walk early.
+ */
+final class CallerFrames {
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private CallerFrames() {
+        // not meant to be instanciated, use static methods
+    }
+
+    /**
+     * Visits the frames of the current thread stack until the `visitor` asks to stop the walk.
+     *
+     * @param visitor The callback receiving the frames, which decides when the walk should stop
+     */
+    static void walk(final FrameVisitor visitor) {
+        WALKER.walk(frames -> frames.anyMatch(frame -> visitor.visit(frame.getClassName(), frame.getMethodName())));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals;
+
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.testutils.FolderTestUtils;
+import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ApprovalsBinaryTest {
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final Approver approver = new Approver().reportTo(mock(Reporter.class));
+
+    @Test
+    void shouldDoNothingWhenBytesMatchApprovedFile() throws IOException {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldDoNothingWhenBytesMatchApprovedFile", getClass());
+        Files.createDirectories(testUtils.approved.getParent());
+        Files.write(testUtils.approved, PNG_SIGNATURE);
+
+        approver.verify(PNG_SIGNATURE);
+
+        assertThat(testUtils.received).doesNotExist();
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldWriteReceivedBytesWhenLineEndingsDiffer() throws IOException {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldWriteReceivedBytesWhenLineEndingsDiffer", getClass());
+        Files.createDirectories(testUtils.approved.getParent());
+        Files.write(testUtils.approved, PNG_SIGNATURE);
+        final ByteBuffer received = ByteBuffer.wrap(PNG_SIGNATURE.clone());
+        received.put(4, (byte) '\n');
+
+        assertThatThrownBy(() -> approver.verify(received))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageStartingWith("first difference at byte#4");
+
+        assertThat(testUtils.received).hasBinaryContent(received.array());
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldCompareFoldersByteByByte() throws IOException {
+        final FolderTestUtils testUtils = new FolderTestUtils("shouldCompareFoldersByteByByte", getClass());
+        testUtils.writeApproved("same\n", "same.txt");
+        testUtils.writeActual("same\n", "same.txt");
+        testUtils.writeApproved("line\n", "lineEndings.txt");
+        testUtils.writeActual("line\r\n", "lineEndings.txt");
+
+        assertThatThrownBy(() -> approver.binary().verify(testUtils.actual))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageStartingWith("first difference at byte#4");
+
+        assertThat(testUtils.received.resolve("same.txt")).doesNotExist();
+        assertThat(testUtils.received.resolve("lineEndings.txt")).hasBinaryContent("line\r\n".getBytes());
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldReplaceOutdatedReceivedFileWithOutputFile() throws IOException {
+        final FolderTestUtils testUtils = new FolderTestUtils("shouldReplaceOutdatedReceivedFileWithOutputFile", getClass());
+        testUtils.writeApproved("approved\n", "output.txt");
+        testUtils.writeReceived("outdated\n", "output.txt");
+        testUtils.writeActual("actual\r\n", "output.txt");
+
+        assertThatThrownBy(() -> approver.binary().verify(testUtils.actual.resolve("output.txt")))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageStartingWith("first difference at byte#1");
+
+        assertThat(testUtils.received.resolve("output.txt")).hasBinaryContent("actual\r\n".getBytes());
+        testUtils.cleanupPaths();
+    }
+}
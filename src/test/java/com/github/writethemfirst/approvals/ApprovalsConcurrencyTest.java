@@ -0,0 +1,104 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals;
+
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.reporters.FirstWorkingReporter;
+import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ApprovalsConcurrencyTest {
+    private static final int FILES = 16;
+    private static final int VERIFICATIONS = 4000;
+    private static final int THREADS = 32;
+
+    @Test
+    void shouldVerifySameFilesConcurrently() throws Exception {
+        final List<SimpleTestUtils> files = range(0, FILES)
+            .mapToObj(i -> new SimpleTestUtils("concurrent " + i, getClass()))
+            .collect(toList());
+        range(0, FILES).forEach(i -> files.get(i).writeApproved("approved " + i));
+        final Approver approver = new Approver().reportTo(mock(Reporter.class));
+
+        final List<Callable<Boolean>> verifications = new ArrayList<>();
+        for (int k = 0; k < VERIFICATIONS; k++) {
+            final int file = k % FILES;
+            final boolean matching = k % 4 != 0;
+            verifications.add(() -> {
+                try {
+                    approver.writeTo("concurrent " + file).verify((matching ? "approved " : "received ") + file);
+                    return matching;
+                } catch (final AssertionError e) {
+                    return !matching;
+                }
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (final Future<Boolean> result : executor.invokeAll(verifications)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        range(0, FILES).forEach(i -> assertThat(files.get(i).readApproved()).isEqualTo("approved " + i));
+        files.forEach(SimpleTestUtils::cleanupPaths);
+    }
+
+    @Test
+    void shouldSearchForFirstWorkingReporterOnce() throws Exception {
+        final AtomicInteger searches = new AtomicInteger();
+        final Reporter slowReporter = mock(Reporter.class);
+        given(slowReporter.isAvailable()).will(invocation -> {
+            searches.incrementAndGet();
+            Thread.sleep(10);
+            return true;
+        });
+        final FirstWorkingReporter reporter = new FirstWorkingReporter(slowReporter);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Callable<Boolean>> calls = range(0, VERIFICATIONS)
+                .mapToObj(i -> (Callable<Boolean>) reporter::isAvailable)
+                .collect(toList());
+            for (final Future<Boolean> result : executor.invokeAll(calls)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(searches).hasValue(1);
+    }
+}
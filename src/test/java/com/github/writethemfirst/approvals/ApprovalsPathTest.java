@@ -189,4 +189,41 @@ class ApprovalsPathTest {
 
         testUtils.cleanupPaths();
     }
+
+    @Test
+    void shouldOnlyCopyMismatchedFilesToReceivedFolder() throws IOException {
+        final FolderTestUtils testUtils = new FolderTestUtils("shouldOnlyCopyMismatchedFilesToReceivedFolder", getClass());
+        testUtils.writeActual("same", "sample.xml");
+        testUtils.writeApproved("same", "sample.xml");
+        testUtils.writeActual("same", "nested/sample3.xml");
+        testUtils.writeApproved("same", "sample3.xml");
+        testUtils.writeActual("actual", "nested/sample2.xml");
+        testUtils.writeApproved("approved", "sample2.xml");
+
+        assertThatThrownBy(() -> approver.verify(testUtils.actual))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageContaining("expected a[pproved] but was a[ctual]");
+
+        // the actual files of sub-folders are matched by their names with the approved files
+        assertThat(testUtils.received.resolve("sample.xml")).doesNotExist();
+        assertThat(testUtils.received.resolve("sample3.xml")).doesNotExist();
+        assertThat(testUtils.received.resolve("sample2.xml")).hasContent("actual");
+        assertThat(testUtils.actual.resolve("sample.xml")).hasContent("same");
+
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldNotCreateReceivedFolderWhenAllFilesMatch() throws IOException {
+        final FolderTestUtils testUtils = new FolderTestUtils("shouldNotCreateReceivedFolderWhenAllFilesMatch", getClass());
+        testUtils.writeActual("same", "sample.xml");
+        testUtils.writeApproved("same", "sample.xml");
+
+        approver.verify(testUtils.actual);
+
+        assertThat(testUtils.received).doesNotExist();
+        assertThat(testUtils.actual.resolve("sample.xml")).hasContent("same");
+
+        testUtils.cleanupPaths();
+    }
 }
@@ -18,6 +18,7 @@
 package com.github.writethemfirst.approvals;
 
 import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.files.ApprovalSession;
 import com.github.writethemfirst.approvals.reporters.ThrowsReporter;
 import com.github.writethemfirst.approvals.reporters.CommandReporter;
 import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
@@ -85,6 +86,25 @@ class ApprovalsSimpleTest {
         testUtils.cleanupPaths();
     }
 
+    @SystemProperty(name = "AUTO_APPROVE", value = "true")
+    @Test
+    void shouldOverrideApprovedFileRightAwayWithinSession() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldOverrideApprovedFileRightAwayWithinSession", getClass());
+        testUtils.writeApproved("old approved");
+        new ApprovalSession(getClass().getName(), testUtils.approved.getParent())
+            .bind("shouldOverrideApprovedFileRightAwayWithinSession");
+
+        try {
+            approver.verify("new approved");
+        } finally {
+            ApprovalSession.unbind();
+        }
+
+        assertThat(testUtils.readApproved()).isEqualTo("new approved");
+
+        testUtils.cleanupPaths();
+    }
+
     @Test
     void shouldFailWhenApprovedFileDoesNotExist() {
         final SimpleTestUtils testUtils = new SimpleTestUtils("shouldFailWhenApprovedFileDoesNotExist", getClass());
@@ -0,0 +1,195 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals;
+
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.reporters.ThrowsReporter;
+import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
+import io.github.glytching.junit.extension.system.SystemProperty;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.github.writethemfirst.approvals.utils.FunctionUtils.combinations;
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApprovalsStreamTest {
+    private final Approver approver = new Approver().reportTo(new ThrowsReporter());
+
+    @Test
+    void shouldDoNothingWhenReaderMatchesApprovedFile() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldDoNothingWhenReaderMatchesApprovedFile", getClass());
+        testUtils.writeApproved("line1\nline2");
+
+        approver.verify(new StringReader("line1\r\nline2\r\n"));
+
+        assertThat(testUtils.received).doesNotExist();
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldNotWriteAnythingWhenReaderMatches() throws IOException {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldNotWriteAnythingWhenReaderMatches", getClass());
+        testUtils.writeApproved("line1\nline2");
+        final List<Path> files = listFiles(testUtils.approved.getParent());
+
+        approver.verify(new StringReader("line1\r\nline2\r\n"));
+
+        assertThat(listFiles(testUtils.approved.getParent())).isEqualTo(files);
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldWriteReceivedFileWhenReaderMismatches() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldWriteReceivedFileWhenReaderMismatches", getClass());
+        testUtils.writeApproved("line1\nline2\nline3");
+
+        assertThatThrownBy(() -> approver.verify(new StringReader("line1\r\nlineX\r\nline3")))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageContaining("expected line[2] but was line[X]");
+
+        assertThat(testUtils.readReceived()).isEqualTo("line1\nlineX\nline3");
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldWriteReceivedFileWhenApprovedFileIsShorter() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldWriteReceivedFileWhenApprovedFileIsShorter", getClass());
+        testUtils.writeApproved("line1\n");
+
+        assertThatThrownBy(() -> approver.verify(new StringReader("line1\nline2")))
+            .isInstanceOf(AssertionError.class);
+
+        assertThat(testUtils.readReceived()).isEqualTo("line1\nline2");
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldVerifyInputStreamWithHeader() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldVerifyInputStreamWithHeader", getClass());
+        testUtils.writeApproved("result, a\n1 <== , 1");
+
+        approver.namedArguments("a").verify(new ByteArrayInputStream("1 <== , 1".getBytes()));
+
+        assertThat(testUtils.received).doesNotExist();
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldNotWriteReceivedFileWhenCharSequenceMatches() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldNotWriteReceivedFileWhenCharSequenceMatches", getClass());
+        testUtils.writeApproved("result, a\nsome text");
+
+        approver.namedArguments("a").verify(new StringBuilder("some text\n"));
+
+        assertThat(testUtils.received).doesNotExist();
+        testUtils.cleanupPaths();
+    }
+
+    @SystemProperty(name = "MAPPED_COMPARISON_THRESHOLD", value = "4")
+    @Test
+    void shouldCompareCharSequenceWithBigApprovedFile() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldCompareCharSequenceWithBigApprovedFile", getClass());
+        testUtils.writeApproved("line1\nline2");
+
+        approver.verify("line1\r\nline2\r\n");
+        assertThat(testUtils.received).doesNotExist();
+
+        assertThatThrownBy(() -> approver.verify("line1\nlineX"))
+            .isInstanceOf(AssertionError.class);
+        assertThatThrownBy(() -> approver.verify("line1\nlineX"))
+            .isInstanceOf(AssertionError.class);
+        assertThat(testUtils.readReceived()).isEqualTo("line1\nlineX");
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldStreamCombinationsAndSpillRowsAfterDivergence() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldStreamCombinationsAndSpillRowsAfterDivergence", getClass());
+        testUtils.writeApproved("2 <== , 1\n3 <== , 2\n5 <== , 3");
+
+        assertThatThrownBy(() -> approver.verify(combinations(asList(1, 2, 3, 4), x -> x + 1).stream(4)))
+            .isInstanceOf(AssertionError.class);
+
+        assertThat(testUtils.readReceived()).isEqualTo("2 <== , 1\n3 <== , 2\n4 <== , 3\n5 <== , 4");
+        testUtils.cleanupPaths();
+    }
+
+    @SystemProperty(name = "FAIL_FAST_COMBINATIONS", value = "10")
+    @Test
+    void shouldStopEvaluatingCombinationsAfterDifference() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldStopEvaluatingCombinationsAfterDifference", getClass());
+        testUtils.writeApproved("0 <== , 0");
+        final AtomicInteger evaluated = new AtomicInteger();
+        final List<Integer> args = IntStream.range(0, 100_000).boxed().collect(toList());
+
+        assertThatThrownBy(() -> approver.verify(combinations(args, x -> evaluated.incrementAndGet() * 0)))
+            .isInstanceOf(AssertionError.class);
+
+        // the 2 rows read until the difference (rendered one at a time with fail fast), then the 10 fail fast rows
+        assertThat(evaluated.get()).isEqualTo(2 + 10);
+        assertThat(testUtils.readReceived())
+            .startsWith("0 <== , 0\n0 <== , 1\n")
+            .contains("0 <== , 11\n")
+            .doesNotContain("0 <== , 12\n")
+            .endsWith("[99988 more combinations not evaluated]");
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldEvaluateCombinationsWithoutHoldingLockOfApprovedFile() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldEvaluateCombinationsWithoutHoldingLockOfApprovedFile", getClass());
+        testUtils.writeApproved("true <== , 1\ntrue <== , 2");
+
+        approver.verify(combinations(asList(1, 2), x -> lockableFromOtherThread(testUtils)));
+
+        assertThat(testUtils.received).doesNotExist();
+        testUtils.cleanupPaths();
+    }
+
+    private static boolean lockableFromOtherThread(final SimpleTestUtils testUtils) {
+        try {
+            return CompletableFuture.supplyAsync(() -> locking(testUtils.approved, () -> true)).get(10, TimeUnit.SECONDS);
+        } catch (final TimeoutException e) {
+            return false;
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Path> listFiles(final Path folder) throws IOException {
+        try (final Stream<Path> files = Files.list(folder)) {
+            return files.sorted().collect(toList());
+        }
+    }
+}
@@ -20,7 +20,12 @@ package com.github.writethemfirst.approvals;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
+import static com.github.writethemfirst.approvals.testutils.LineEndingsTestUtils.allContents;
 import static com.github.writethemfirst.approvals.utils.StringUtils.describeDifferences;
+import static com.github.writethemfirst.approvals.utils.StringUtils.sameContent;
+import static com.github.writethemfirst.approvals.utils.StringUtils.splitOnLineEndings;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class StringUtilsTest {
@@ -54,4 +59,45 @@ class StringUtilsTest {
                 "text\t12\n" +
                 "first difference at line#1 col#4: expected text[ ]2 but was text[\t1]2");
     }
+
+    @Test
+    void shouldDescribeDifferencesAsUnifiedDiff() {
+        assertThat(describeDifferences("text1\ntext 2\ntext3", "text1\ntext\t12\ntext3\ntext4", 0, 1000))
+            .isEqualTo("first difference at line#1 col#4: expected text[ ]2 but was text[\t1]2\n" +
+                "--- approved\n" +
+                "+++ received\n" +
+                "@@ -2 +2 @@\n" +
+                "-text 2\n" +
+                "+text\t12\n" +
+                "@@ -3,0 +4 @@\n" +
+                "+text4\n");
+    }
+
+    @Test
+    void shouldIgnoreLineEndingsDifferences() {
+        assertThat(sameContent("line1\r\nline2\r\n", "line1\nline2")).isTrue();
+    }
+
+    @Test
+    void shouldNotConsiderCarriageReturnAloneAsLineEnding() {
+        assertThat(sameContent("line1\rline2", "line1\nline2")).isFalse();
+    }
+
+    @Test
+    void shouldDistinguishEmptyContentFromLineEndingsOnly() {
+        assertThat(sameContent("", "\n")).isFalse();
+        assertThat(sameContent("\r\n", "\n\n")).isTrue();
+    }
+
+    @Test
+    void shouldCompareLikeSplitLines() {
+        final List<String> contents = allContents(5);
+        for (final String expected : contents) {
+            for (final String actual : contents) {
+                assertThat(sameContent(expected, actual))
+                    .as("<%s> vs <%s>", expected, actual)
+                    .isEqualTo(splitOnLineEndings(expected).equals(splitOnLineEndings(actual)));
+            }
+        }
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRead;
+import static com.github.writethemfirst.approvals.utils.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class ApprovalSessionTest {
+    @AfterEach
+    void unbind() {
+        ApprovalSession.unbind();
+    }
+
+    @Test
+    void shouldPostponeRemovalUntilFlush(final TemporaryFolder temporaryFolder) {
+        final Path folder = temporaryFolder.getRoot().toPath();
+        final Path received = folder.resolve("sample.received");
+        write("previous", received);
+        final ApprovalSession session = new ApprovalSession("SampleTest", folder);
+        session.bind("sample");
+
+        ApprovalSession.remove(folder.resolve("sample.approved"), received);
+
+        assertThat(received).exists();
+        session.flush();
+        assertThat(received).doesNotExist();
+    }
+
+    @Test
+    void shouldCancelRemovalOfFileWrittenAgain(final TemporaryFolder temporaryFolder) {
+        final Path folder = temporaryFolder.getRoot().toPath();
+        final Path received = folder.resolve("sample.received");
+        write("received", received);
+        final ApprovalSession session = new ApprovalSession("SampleTest", folder);
+        session.bind("sample");
+
+        ApprovalSession.remove(folder.resolve("sample.approved"), received);
+        ApprovalSession.cancel(received);
+        session.flush();
+
+        assertThat(received).exists();
+    }
+
+    @Test
+    void shouldShareContentOfPrefetchedApprovedFiles(final TemporaryFolder temporaryFolder) throws Exception {
+        final Path folder = temporaryFolder.getRoot().toPath();
+        write("approved", folder.resolve("sample.approved"));
+        final ApprovalSession session = new ApprovalSession("SampleTest", folder);
+        session.prefetch().get();
+        session.bind("sample");
+
+        final ApprovalFiles files = new ApprovalFiles(folder, "sample");
+
+        assertThat(ApprovalSession.approvedContent(files.approved)).isSameAs(ApprovalSession.approvedContent(files.approved));
+        assertThat(files.hasApproved("approved")).isTrue();
+        Files.delete(files.approved);
+        assertThat(files.approvedContent()).isEmpty();
+    }
+
+    @Test
+    void shouldNotKeepPrefetchedContentOfFileWrittenMeanwhile(final TemporaryFolder temporaryFolder) throws Exception {
+        final Path folder = temporaryFolder.getRoot().toPath();
+        final Path approved = folder.resolve("sample.approved");
+        write("approved", approved);
+        final ApprovalSession session = new ApprovalSession("SampleTest", folder);
+        session.bind("sample");
+
+        ApprovalSession.cancel(approved);
+        session.prefetch().get();
+
+        assertThat(ApprovalSession.approvedContent(approved)).isNotSameAs(ApprovalSession.approvedContent(approved));
+    }
+
+    @Test
+    void shouldRemoveRightAwayWithoutSession(final TemporaryFolder temporaryFolder) {
+        final Path folder = temporaryFolder.getRoot().toPath();
+        final Path received = folder.resolve("sample.received");
+        write("received", received);
+
+        assertThat(ApprovalSession.current()).isEmpty();
+        ApprovalSession.remove(folder.resolve("sample.approved"), received);
+        assertThat(received).doesNotExist();
+    }
+}
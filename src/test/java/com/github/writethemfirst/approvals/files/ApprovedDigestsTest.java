@@ -0,0 +1,98 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.reporters.ThrowsReporter;
+import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
+import io.github.glytching.junit.extension.system.SystemProperty;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRead;
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRemove;
+import static com.github.writethemfirst.approvals.utils.FileUtils.write;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApprovedDigestsTest {
+    private static final FileTime AN_HOUR_AGO = FileTime.from(Instant.now().minus(1, HOURS));
+
+    private final Approver approver = new Approver().reportTo(new ThrowsReporter());
+
+    @SystemProperty(name = "APPROVED_DIGESTS", value = "true")
+    @Test
+    void shouldUseDigestUntilApprovedFileChanges() throws Exception {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldUseDigestUntilApprovedFileChanges", getClass());
+        final Path index = testUtils.approved.resolveSibling(ApprovedDigests.INDEX_FILE_NAME);
+        testUtils.writeApproved("some text");
+        Files.setLastModifiedTime(testUtils.approved, AN_HOUR_AGO);
+
+        approver.verify("some text\r\n");
+        ApprovedDigests.flushAll();
+        assertThat(index).exists();
+        assertThat(silentRead(index)).contains("\tshouldUseDigestUntilApprovedFileChanges.approved");
+
+        // same size and modification time: the edit is still seen
+        testUtils.writeApproved("SOME TEXT");
+        Files.setLastModifiedTime(testUtils.approved, AN_HOUR_AGO);
+        assertThatThrownBy(() -> approver.verify("some text"))
+            .isInstanceOf(AssertionError.class);
+
+        testUtils.cleanupPaths();
+        silentRemove(index);
+    }
+
+    @Test
+    void shouldNotKeepDigestOfRecentlyModifiedFile() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldNotKeepDigestOfRecentlyModifiedFile", getClass());
+        final Path index = testUtils.approved.resolveSibling(ApprovedDigests.INDEX_FILE_NAME);
+        testUtils.writeApproved("some text");
+        final ApprovedDigests digests = ApprovedDigests.of(testUtils.approved.getParent());
+
+        assertThat(digests.digest(testUtils.approved)).isPresent();
+        digests.flush();
+
+        assertThat(index).doesNotExist();
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldKeepDigestsSavedByOtherJvms() throws Exception {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldKeepDigestsSavedByOtherJvms", getClass());
+        final Path index = testUtils.approved.resolveSibling(ApprovedDigests.INDEX_FILE_NAME);
+        final ApprovedDigests digests = ApprovedDigests.of(testUtils.approved.getParent());
+        testUtils.writeApproved("some text");
+        Files.setLastModifiedTime(testUtils.approved, AN_HOUR_AGO);
+
+        digests.digest(testUtils.approved);
+        write("1\t2\t3\tnull\tdigest\tother.approved\n", index);
+        digests.flush();
+
+        assertThat(silentRead(index))
+            .contains("\tdigest\tother.approved")
+            .contains("\tshouldKeepDigestsSavedByOtherJvms.approved");
+        testUtils.cleanupPaths();
+        silentRemove(index);
+    }
+}
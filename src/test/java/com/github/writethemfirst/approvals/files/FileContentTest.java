@@ -0,0 +1,67 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import io.github.glytching.junit.extension.system.SystemProperty;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileContentTest {
+    @Test
+    void shouldReadFileOnlyWhenItChanged() throws Exception {
+        final Path file = Files.createTempFile("content", ".txt");
+        try {
+            final FileContent content = new FileContent(file);
+            content.write("some text");
+            assertThat(content.read()).isEqualTo("some text");
+
+            // same size and modification time: the file isn't read again
+            final FileTime modified = Files.getLastModifiedTime(file);
+            Files.write(file, "SOME TEXT".getBytes());
+            Files.setLastModifiedTime(file, modified);
+            assertThat(content.read()).isEqualTo("some text");
+
+            Files.write(file, "some other text".getBytes());
+            assertThat(content.read()).isEqualTo("some other text");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @SystemProperty(name = "MAPPED_COMPARISON_THRESHOLD", value = "4")
+    @Test
+    void shouldNotKeepBigContentWritten() throws Exception {
+        final Path file = Files.createTempFile("content", ".txt");
+        try {
+            final FileContent content = new FileContent(file);
+            content.write("some text");
+
+            final FileTime modified = Files.getLastModifiedTime(file);
+            Files.write(file, "SOME TEXT".getBytes());
+            Files.setLastModifiedTime(file, modified);
+            assertThat(content.read()).isEqualTo("SOME TEXT");
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.files;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.listFiles;
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRecursiveRemove;
+import static java.util.stream.Collectors.partitioningBy;
+
+/**
+ * Compares {@link ApprovalFolders#matchesAndMismatches()} with the former implementation, which listed both folders
+ * and then compared the files one pair after the other, on a synthetic tree of files spread in sub-folders (with a
+ * mismatch every 100 files).
+ *
+ * The number of threads comparing the files can be changed with the `FOLDER_COMPARISON_THREADS` system property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FolderComparisonBenchmark {
+    @Param({"1000", "5000"})
+    int files;
+
+    private Path root;
+    private ApprovalFolders folders;
+
+    @Setup
+    public void createTree() throws IOException {
+        root = Files.createTempDirectory("folder-benchmark");
+        final Path approved = root.resolve("approved");
+        final Path received = root.resolve("received");
+        for (int i = 0; i < files; i++) {
+            final Path file = Paths.get(String.valueOf(i % 10), String.valueOf(i % 7), "file" + i + ".txt");
+            final String content = String.format("file %d%nwith some content%n", i);
+            write(approved.resolve(file), content);
+            write(received.resolve(file), i % 100 == 0 ? content + "and a difference" : content);
+        }
+        folders = new ApprovalFolders(approved, received);
+    }
+
+    @TearDown
+    public void removeTree() {
+        silentRecursiveRemove(root);
+    }
+
+    @Benchmark
+    public MatchesAndMismatches legacySequentialComparison() {
+        final Map<Boolean, List<ApprovalFiles>> matchesAndMismatches = Stream
+            .concat(
+                listFiles(folders.approved).map(file -> new ApprovalFiles(file, folders.received.resolve(folders.approved.relativize(file)))),
+                listFiles(folders.received).map(file -> new ApprovalFiles(folders.approved.resolve(folders.received.relativize(file)), file)))
+            .distinct()
+            .collect(partitioningBy(ApprovalFiles::haveSameContent));
+        return new MatchesAndMismatches(matchesAndMismatches.get(true), matchesAndMismatches.get(false));
+    }
+
+    @Benchmark
+    public MatchesAndMismatches matchesAndMismatches() {
+        return folders.matchesAndMismatches();
+    }
+
+    private static void write(final Path file, final String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes());
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FolderComparisonBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.junit5;
+
+import com.github.writethemfirst.approvals.Approvals;
+import com.github.writethemfirst.approvals.files.ApprovalSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(ApprovalsExtension.class)
+class ApprovalsExtensionTest {
+    @Test
+    void shouldBindTestMethodToSession() {
+        assertThat(ApprovalSession.currentMethod(ApprovalsExtensionTest.class.getName()))
+            .contains("shouldBindTestMethodToSession");
+    }
+
+    @Test
+    void shouldNameApprovedFileAfterTestMethod() {
+        Approvals.verify("approved by the extension");
+    }
+
+    @Test
+    void shouldNameApprovedFileAfterTestMethodWhenVerifyingFromHelper() {
+        verifyFromHelper();
+    }
+
+    @Test
+    void shouldNameApprovedFileAfterTestMethodWhenVerifyingFromLambda() {
+        final Runnable verification = () -> Approvals.verify("approved from a lambda");
+        verification.run();
+    }
+
+    /**
+     * Searching for the caller in the stack would name the approved file after that helper.
+     */
+    private static void verifyFromHelper() {
+        Approvals.verify("approved from a helper");
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PercentilesListenerTest {
+    @Test
+    void shouldReportPercentilesPerTestClassSlowestFirst() {
+        final PercentilesListener listener = new PercentilesListener();
+        for (int i = 1; i <= 100; i++) {
+            listener.verified(event("SlowTest", i * 1_000_000L, i % 10 != 0));
+        }
+        listener.verified(event("FastTest", 1_000L, true));
+
+        final String report = listener.report();
+
+        assertThat(report.indexOf("SlowTest")).isLessThan(report.indexOf("FastTest"));
+        assertThat(report).contains("SlowTest: 100 verifications (10 mismatches)");
+        assertThat(report).contains("  COMPARISON          50.000    90.000    99.000   100.000");
+        assertThat(report).contains("FastTest: 1 verifications (0 mismatches)");
+    }
+
+    private static VerificationEvent event(final String testClass, final long comparisonNanos, final boolean matched) {
+        final long[] nanos = new long[Phase.values().length];
+        nanos[Phase.COMPARISON.ordinal()] = comparisonNanos;
+        return new VerificationEvent(testClass, Paths.get(testClass + ".approved"), matched, 10, 0, nanos);
+    }
+}
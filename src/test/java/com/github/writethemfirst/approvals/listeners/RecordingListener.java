@@ -0,0 +1,42 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Listener added by a test (see {@link VerificationMetrics#addListener(VerificationListener)}), keeping the events of
+ * the verifications run while it is added.
+ */
+class RecordingListener implements VerificationListener {
+    private final Queue<VerificationEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void verified(final VerificationEvent event) {
+        events.add(event);
+    }
+
+    List<VerificationEvent> eventsOf(final Path approved) {
+        return events.stream().filter(event -> event.approved.equals(approved)).collect(toList());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.listeners;
+
+import com.github.writethemfirst.approvals.Reporter;
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.writethemfirst.approvals.listeners.Phase.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class VerificationMetricsTest {
+    private final Approver approver = new Approver().reportTo(mock(Reporter.class));
+    private final RecordingListener listener = new RecordingListener();
+
+    @BeforeEach
+    void addListener() {
+        VerificationMetrics.addListener(listener);
+    }
+
+    @AfterEach
+    void removeListener() {
+        VerificationMetrics.removeListener(listener);
+    }
+
+    @Test
+    void shouldNotifyListenersOfMatchingVerification() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldNotifyListenersOfMatchingVerification", getClass());
+        testUtils.writeApproved("some text");
+
+        approver.verify("some text");
+
+        final List<VerificationEvent> events = listener.eventsOf(testUtils.approved);
+        assertThat(events).hasSize(1);
+        final VerificationEvent event = events.get(0);
+        assertThat(event.testClass).isEqualTo(getClass().getName());
+        assertThat(event.matched).isTrue();
+        assertThat(event.bytesRead).isEqualTo(9);
+        assertThat(event.bytesWritten).isZero();
+        assertThat(event.nanos(NAME_RESOLUTION)).isPositive();
+        assertThat(event.nanos(COMPARISON)).isPositive();
+        assertThat(event.nanos(REPORT)).isZero();
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldNotifyListenersBeforeFailing() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldNotifyListenersBeforeFailing", getClass());
+        testUtils.writeApproved("some text");
+
+        assertThatThrownBy(() -> approver.verify("other text")).isInstanceOf(AssertionError.class);
+
+        final List<VerificationEvent> events = listener.eventsOf(testUtils.approved);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).matched).isFalse();
+        assertThat(events.get(0).bytesWritten).isEqualTo(10);
+        assertThat(events.get(0).nanos(RECEIVED_WRITE)).isPositive();
+        assertThat(events.get(0).nanos(REPORT)).isPositive();
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldNotCollectMetricsWithoutListener() {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldNotCollectMetricsWithoutListener", getClass());
+        testUtils.writeApproved("some text");
+        VerificationMetrics.removeListener(listener);
+
+        assertThat(VerificationMetrics.start(getClass().getName())).isSameAs(VerificationMetrics.NONE);
+        approver.verify("some text");
+        assertThatThrownBy(() -> approver.verify("other text")).isInstanceOf(AssertionError.class);
+
+        assertThat(listener.eventsOf(testUtils.approved)).isEmpty();
+        assertThat(testUtils.readReceived()).isEqualTo("other text");
+        testUtils.cleanupPaths();
+    }
+
+    @Test
+    void shouldNeverChangeUnusedMetrics() {
+        VerificationMetrics.NONE.read(9);
+        VerificationMetrics.NONE.output(9);
+
+        assertThat(VerificationMetrics.NONE)
+            .hasFieldOrPropertyWithValue("bytesRead", 0L)
+            .hasFieldOrPropertyWithValue("outputSize", -1L);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.reporters;
+
+import com.github.writethemfirst.approvals.Reporter;
+import com.github.writethemfirst.approvals.files.ApprovalFiles;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+class DefaultReporterTest {
+    private final ApprovalFiles files = new ApprovalFiles(Paths.get("sample.approved"), Paths.get("sample.received"));
+
+    @Test
+    void shouldOnlySearchForReporterOnFirstMismatch() {
+        final Reporter osReporter = mock(Reporter.class);
+        final AtomicInteger searches = new AtomicInteger();
+        final DefaultReporter reporter = new DefaultReporter(() -> {
+            searches.incrementAndGet();
+            return osReporter;
+        }, false);
+
+        assertThat(searches).hasValue(0);
+        reporter.mismatch(files);
+        reporter.mismatch(files);
+
+        assertThat(searches).hasValue(1);
+        then(osReporter).should(times(2)).mismatch(files);
+    }
+
+    @Test
+    void shouldSearchForReporterInBackgroundWhenPrewarming() throws InterruptedException {
+        final Reporter osReporter = mock(Reporter.class);
+        final CountDownLatch searched = new CountDownLatch(1);
+        final DefaultReporter reporter = new DefaultReporter(() -> {
+            searched.countDown();
+            return osReporter;
+        }, true);
+
+        assertThat(searched.await(10, TimeUnit.SECONDS)).isTrue();
+        reporter.mismatch(files);
+
+        then(osReporter).should().mismatch(files);
+    }
+
+    @Test
+    void shouldFallBackToBasicReporterWhenSearchFails() {
+        final DefaultReporter reporter = new DefaultReporter(() -> {
+            throw new IllegalStateException("no tools");
+        }, false);
+
+        assertThat(reporter.isAvailable()).isTrue();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.testutils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LineEndingsTestUtils {
+    private LineEndingsTestUtils() {
+    }
+
+    /**
+     * @return all the contents made of "a", "\r" and "\n", up to `maxLength` characters
+     */
+    public static List<String> allContents(final int maxLength) {
+        return allContents("", maxLength);
+    }
+
+    private static List<String> allContents(final String prefix, final int maxLength) {
+        final List<String> contents = new ArrayList<>();
+        contents.add(prefix);
+        if (prefix.length() < maxLength) {
+            for (final String c : new String[]{"a", "\r", "\n"}) {
+                contents.addAll(allContents(prefix + c, maxLength));
+            }
+        }
+        return contents;
+    }
+}
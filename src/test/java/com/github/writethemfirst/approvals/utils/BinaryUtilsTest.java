@@ -0,0 +1,92 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.github.writethemfirst.approvals.utils.BinaryUtils.describeDifferences;
+import static com.github.writethemfirst.approvals.utils.BinaryUtils.mismatch;
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryUtilsTest {
+    @Test
+    void shouldFindFirstDifferentByte() {
+        final byte[] bytes = new byte[40];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        for (int difference = 0; difference < bytes.length; difference++) {
+            final byte[] other = bytes.clone();
+            other[difference] = -1;
+            assertThat(mismatch(ByteBuffer.wrap(bytes), ByteBuffer.wrap(other))).isEqualTo(difference);
+            assertThat(BinaryUtils.wordMismatch(direct(bytes), direct(other))).isEqualTo(difference);
+        }
+        assertThat(mismatch(ByteBuffer.wrap(bytes), ByteBuffer.wrap(bytes.clone()))).isEqualTo(-1);
+        assertThat(BinaryUtils.wordMismatch(direct(bytes), ByteBuffer.wrap(bytes, 0, 33))).isEqualTo(33);
+    }
+
+    @Test
+    void shouldCompareFilesAndBuffers() throws IOException {
+        final Path file = Files.createTempFile("binary", ".bin");
+        final Path missing = file.resolveSibling(file.getFileName() + ".missing");
+        Files.write(file, new byte[]{1, 2, 3});
+        try {
+            assertThat(mismatch(ByteBuffer.wrap(new byte[]{1, 2, 3}), file)).isEqualTo(-1);
+            assertThat(mismatch(ByteBuffer.wrap(new byte[]{1, 2, 4}), file)).isEqualTo(2);
+            assertThat(mismatch(ByteBuffer.wrap(new byte[]{1, 2}), file)).isEqualTo(2);
+            assertThat(mismatch(file, missing)).isEqualTo(0);
+            assertThat(mismatch(ByteBuffer.allocate(0), missing)).isEqualTo(-1);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void shouldDumpBytesAroundFirstDifference() throws IOException {
+        final Path approved = Files.createTempFile("binary", ".approved");
+        final Path received = Files.createTempFile("binary", ".received");
+        Files.write(approved, "0123456789abcdefHello, World!...".getBytes());
+        Files.write(received, "0123456789abcdefHello, world!".getBytes());
+        try {
+            assertThat(describeDifferences(approved, received, 0)).isEqualTo(format(
+                "first difference at byte#23%n" +
+                    "--- approved (32 bytes)%n" +
+                    "00000010  48 65 6c 6c 6f 2c 20 57  6f 72 6c 64 21 2e 2e 2e  |Hello, World!...|%n" +
+                    "                               ^^%n" +
+                    "+++ received (29 bytes)%n" +
+                    "00000010  48 65 6c 6c 6f 2c 20 77  6f 72 6c 64 21           |Hello, world!|%n" +
+                    "                               ^^%n"));
+        } finally {
+            Files.delete(approved);
+            Files.delete(received);
+        }
+    }
+
+    private static ByteBuffer direct(final byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import com.github.writethemfirst.approvals.utils.functions.Function3;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+/**
+ * Measures how {@link FunctionUtils#applyCombinations(Iterable, Iterable, Iterable, Function3)} scales when the
+ * combinations are computed in parallel on a {@link ForkJoinPool} with more and more threads (`threads` = 0 being the
+ * sequential computation), for about 64k combinations of a function costing a few microseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombinationsBenchmark {
+    @Param({"0", "1", "2", "4", "8", "16", "32"})
+    int threads;
+
+    private final List<Integer> args = range(0, 40).boxed().collect(toList());
+    private final Function3<Integer, Integer, Integer, ?> price = (a, b, c) -> {
+        double result = a;
+        for (int i = 0; i < 500; i++) {
+            result = Math.sqrt(result * b + c + i);
+        }
+        return result;
+    };
+    private ForkJoinPool pool;
+
+    @Setup
+    public void createPool() {
+        pool = threads == 0 ? null : new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public String applyCombinations() {
+        return pool == null
+            ? FunctionUtils.applyCombinations(args, args, args, price)
+            : FunctionUtils.applyCombinations(args, args, args, price, pool);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(CombinationsBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
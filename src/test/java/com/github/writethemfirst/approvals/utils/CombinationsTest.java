@@ -0,0 +1,88 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import com.github.writethemfirst.approvals.utils.Combinations.CombinationsReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CombinationsTest {
+    @Test
+    void shouldStreamSameContentAsRendered() throws IOException {
+        final Combinations combinations = FunctionUtils.combinations(
+            asList(1, 2, 3),
+            asList("a", "b"),
+            (x, y) -> y + x);
+
+        for (final int bufferSize : new int[]{1, 10, 1000}) {
+            final StringWriter writer = new StringWriter();
+            try (final Reader reader = combinations.stream(bufferSize)) {
+                final char[] chars = new char[7];
+                for (int read = reader.read(chars); read >= 0; read = reader.read(chars)) {
+                    writer.write(chars, 0, read);
+                }
+            }
+            assertThat(writer.toString()).isEqualTo(combinations.render());
+        }
+    }
+
+    @Test
+    void shouldCutBufferedRowsWhenStopped() throws IOException {
+        final Combinations combinations = FunctionUtils.combinations(asList(1, 2, 3, 4, 5, 6), x -> x * 10);
+
+        final StringWriter writer = new StringWriter();
+        try (final CombinationsReader reader = combinations.stream(1000)) {
+            writer.write(reader.read());
+            reader.stopAfter(2);
+            for (int c = reader.read(); c >= 0; c = reader.read()) {
+                writer.write(c);
+            }
+        }
+
+        assertThat(writer.toString())
+            .isEqualTo("10 <== , 1\n20 <== , 2\n30 <== , 3\n[3 more combinations not evaluated]\n");
+    }
+
+    @Test
+    void shouldComputeEachLabelOnce() {
+        final AtomicInteger labels = new AtomicInteger();
+        final Object argument = new Object() {
+            @Override
+            public String toString() {
+                return "arg" + labels.incrementAndGet();
+            }
+        };
+
+        final String rendered = FunctionUtils.combinations(
+            singletonList(argument),
+            asList(1, 2, 3),
+            asList(4, 5),
+            (x, y, z) -> y * z).render();
+
+        assertThat(labels).hasValue(1);
+        assertThat(rendered).startsWith("4 <== , arg1, 1, 4\n5 <== , arg1, 1, 5\n");
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.file.Files.createDirectories;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutablesCacheTest {
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void shouldReuseExecutablesFoundByAnotherJvmUntilFolderChanges(final TemporaryFolder temporaryFolder) throws Exception {
+        final Path root = temporaryFolder.getRoot().toPath();
+        final Path cacheFile = root.resolve("executables.cache");
+        final Path jetbrains = createDirectories(root.resolve("JetBrains"));
+        final Path executable = Files.createFile(createDirectories(jetbrains.resolve("IDEA 2018/bin")).resolve("idea64.exe"));
+        Files.setLastModifiedTime(jetbrains, FileTime.fromMillis(0));
+        final AtomicInteger searches = new AtomicInteger();
+        final Function<Path, List<Path>> search = folder -> {
+            searches.incrementAndGet();
+            return singletonList(executable);
+        };
+
+        assertThat(new ExecutablesCache(cacheFile).executables(jetbrains, "idea64.exe", search)).containsExactly(executable);
+        assertThat(new ExecutablesCache(cacheFile).executables(jetbrains, "idea64.exe", search)).containsExactly(executable);
+        assertThat(searches).hasValue(1);
+
+        createDirectories(jetbrains.resolve("IDEA 2019/bin"));
+        new ExecutablesCache(cacheFile).executables(jetbrains, "idea64.exe", search);
+        assertThat(searches).hasValue(2);
+    }
+}
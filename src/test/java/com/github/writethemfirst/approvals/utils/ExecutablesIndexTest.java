@@ -0,0 +1,64 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.Files.createDirectories;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutablesIndexTest {
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void shouldFindExecutablesInFolderAndInPath(final TemporaryFolder temporaryFolder) throws Exception {
+        final Path root = temporaryFolder.getRoot().toPath();
+        final Path bin = createDirectories(root.resolve("bin"));
+        final Path tools = createDirectories(root.resolve("tools"));
+        final Path onPath = executable(bin.resolve("meld"));
+        final Path inFolder = executable(tools.resolve("meld"));
+        executable(createDirectories(tools.resolve("nested")).resolve("kdiff3"));
+
+        final ExecutablesIndex index = new ExecutablesIndex(singletonList(bin));
+
+        assertThat(index.find("meld", tools)).containsExactlyInAnyOrder(onPath, inFolder);
+        assertThat(index.find("meld", root)).containsExactly(onPath);
+        assertThat(index.find("kdiff3", tools)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreEmptyFoldersInPath() {
+        final String path = String.join(File.pathSeparator, "/usr/bin", "", " ", "/bin");
+
+        assertThat(ExecutablesIndex.pathFolders(path)).extracting(Path::toString).containsExactly("/usr/bin", "/bin");
+        assertThat(ExecutablesIndex.pathFolders(null)).isEmpty();
+    }
+
+    private static Path executable(final Path path) throws Exception {
+        final Path file = Files.createFile(path);
+        file.toFile().setExecutable(true);
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static com.github.writethemfirst.approvals.utils.FileUtils.copy;
+import static com.github.writethemfirst.approvals.utils.FileUtils.silentRecursiveRemove;
+import static com.github.writethemfirst.approvals.utils.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileUtilsTest {
+    @Test
+    void shouldCopyBinaryFilesAsTheyAre() throws IOException {
+        final byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        final Path source = Files.createTempDirectory("source");
+        final Path destination = Files.createTempDirectory("destination").resolve("copy");
+        Files.write(source.resolve("image.png"), bytes);
+        Files.write(Files.createDirectories(source.resolve("nested")).resolve("image.png"), bytes);
+        try {
+            copy(source, destination);
+
+            assertThat(destination.resolve("image.png")).hasBinaryContent(bytes);
+            assertThat(destination.resolve("nested/image.png")).hasBinaryContent(bytes);
+        } finally {
+            silentRecursiveRemove(source);
+            silentRecursiveRemove(destination.getParent());
+        }
+    }
+
+    @Test
+    void shouldOnlyReplaceFilesWhichChanged() throws IOException {
+        final Path folder = Files.createTempDirectory("write");
+        final Path file = folder.resolve("sample.approved");
+        final FileTime lastWeek = FileTime.fromMillis(System.currentTimeMillis() - 7 * 24 * 3600 * 1000L);
+        try {
+            write("content\nline", file);
+            Files.setLastModifiedTime(file, lastWeek);
+
+            write("content\nline", file);
+            write(new StringReader("content\nline"), file);
+            write(ByteBuffer.wrap("content\nline".getBytes()), file);
+            assertThat(Files.getLastModifiedTime(file)).isEqualTo(lastWeek);
+
+            write(new StringBuilder("content\nline2"), file);
+            assertThat(file).hasContent("content\nline2");
+            assertThat(Files.getLastModifiedTime(file)).isNotEqualTo(lastWeek);
+            try (final Stream<Path> files = Files.list(folder)) {
+                assertThat(files).containsExactly(file);
+            }
+        } finally {
+            silentRecursiveRemove(folder);
+        }
+    }
+}
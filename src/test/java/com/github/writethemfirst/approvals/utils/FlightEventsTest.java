@@ -0,0 +1,50 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightEventsTest {
+    @Test
+    void shouldNotRecordEventsWithoutRecording() {
+        assertThat(FlightEvents.verification()).isSameAs(FlightEvents.NONE);
+        assertThat(FlightEvents.folderComparison()).isSameAs(FlightEvents.NONE);
+        assertThat(FlightEvents.fileRead()).isSameAs(FlightEvents.NONE);
+        assertThat(FlightEvents.fileWrite()).isSameAs(FlightEvents.NONE);
+        assertThat(FlightEvents.executableSearch()).isSameAs(FlightEvents.NONE);
+        assertThat(FlightEvents.commandExecution()).isSameAs(FlightEvents.NONE);
+    }
+
+    @Test
+    void shouldIgnoreValuesOfDisabledEvent() {
+        final FlightEvent event = FlightEvents.NONE
+            .path(Paths.get("sample.approved"))
+            .approvedSize(12)
+            .actualSize(13)
+            .outcome("matched");
+
+        event.commit();
+
+        assertThat(event).isSameAs(FlightEvents.NONE);
+        assertThat(event.isEnabled()).isFalse();
+    }
+}
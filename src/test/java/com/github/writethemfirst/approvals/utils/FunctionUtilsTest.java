@@ -18,10 +18,18 @@
 package com.github.writethemfirst.approvals.utils;
 
 import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.utils.functions.Function3;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 
 class FunctionUtilsTest {
     private final Approver approvals = new Approver();
@@ -34,5 +42,26 @@ class FunctionUtilsTest {
         approvals.verify(results);
     }
 
+    @Test
+    void shouldProduceSameResultsInParallel() {
+        final List<Integer> args = IntStream.range(-50, 50).boxed().collect(toList());
+        final Function3<Integer, Integer, Integer, ?> f = (a, b, c) -> {
+            if (c == 0) {
+                throw new IllegalArgumentException("c can't be 0");
+            }
+            return a * b / c;
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final String sequential = FunctionUtils.applyCombinations(args, args, args, f);
+
+            assertThat(FunctionUtils.applyCombinations(args, args, args, f, ForkJoinPool.commonPool()))
+                .isEqualTo(sequential);
+            assertThat(FunctionUtils.applyCombinations(args, args, args, f, executor))
+                .isEqualTo(sequential);
+        } finally {
+            executor.shutdown();
+        }
+    }
 
 }
@@ -0,0 +1,151 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineDiffTest {
+    @Test
+    void shouldDescribeChangesWithContext() {
+        final List<String> expected = asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        final List<String> actual = asList("a", "b", "c", "D", "e", "f", "g", "h", "i", "j", "k");
+
+        assertThat(new LineDiff(expected, actual).unified(1, 1000)).isEqualTo("" +
+            "--- approved\n" +
+            "+++ received\n" +
+            "@@ -3,3 +3,3 @@\n" +
+            " c\n" +
+            "-d\n" +
+            "+D\n" +
+            " e\n" +
+            "@@ -10 +10,2 @@\n" +
+            " j\n" +
+            "+k\n");
+    }
+
+    @Test
+    void shouldTruncateLongDescriptions() {
+        final List<String> expected = new ArrayList<>();
+        final List<String> actual = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            expected.add("expected line " + i);
+            actual.add("actual line " + i);
+        }
+
+        assertThat(new LineDiff(expected, actual).unified(3, 500))
+            .hasSizeLessThan(600)
+            .endsWith("[... diff truncated after 500 characters]");
+    }
+
+    @Test
+    void shouldOnlyDescribeFirstDifferenceWhenWorkIsExceeded() {
+        final List<String> expected = asList("a", "b", "c", "d", "e");
+        final List<String> actual = asList("a", "b", "X", "Y", "Z");
+
+        assertThat(new LineDiff(expected, actual, 0).unified(1, 1000)).isEqualTo("" +
+            "--- approved\n" +
+            "+++ received\n" +
+            "@@ -2,4 +2,4 @@\n" +
+            " b\n" +
+            "-c\n" +
+            "-d\n" +
+            "-e\n" +
+            "+X\n" +
+            "+Y\n" +
+            "+Z\n" +
+            "[... too many differences, only the lines after the first one are shown]");
+    }
+
+    @Test
+    void shouldBoundWorkOnVeryDifferentContents() {
+        final List<String> expected = new ArrayList<>();
+        final List<String> actual = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            expected.add("expected line " + i);
+            actual.add("actual line " + i);
+        }
+
+        assertThat(new LineDiff(expected, actual, LineDiff.workFor(500, 200_000)).unified(3, 500))
+            .startsWith("--- approved\n+++ received\n@@ -1,")
+            .contains("-expected line 0\n")
+            .contains("+actual line 0\n")
+            .endsWith("[... too many differences, only the lines after the first one are shown]");
+    }
+
+    @Test
+    void shouldFindShortestEditScript() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            final List<String> expected = randomLines(random);
+            final List<String> actual = randomLines(random);
+
+            final List<String> diff = asList(new LineDiff(expected, actual).unified(Integer.MAX_VALUE, Integer.MAX_VALUE).split("\n"));
+
+            final List<String> diffExpected = new ArrayList<>();
+            final List<String> diffActual = new ArrayList<>();
+            int edits = 0;
+            for (final String line : diff.subList(2, diff.size())) {
+                if (line.startsWith("@@")) {
+                    continue;
+                }
+                if (line.charAt(0) != '+') {
+                    diffExpected.add(line.substring(1));
+                }
+                if (line.charAt(0) != '-') {
+                    diffActual.add(line.substring(1));
+                }
+                if (line.charAt(0) != ' ') {
+                    edits++;
+                }
+            }
+            if (edits > 0) {
+                assertThat(diffExpected).isEqualTo(expected);
+                assertThat(diffActual).isEqualTo(actual);
+            }
+            assertThat(edits).isEqualTo(expected.size() + actual.size() - 2 * longestCommonSubsequence(expected, actual));
+        }
+    }
+
+    private static List<String> randomLines(final Random random) {
+        final List<String> lines = new ArrayList<>();
+        final int size = random.nextInt(12);
+        for (int i = 0; i < size; i++) {
+            lines.add(String.valueOf((char) ('a' + random.nextInt(4))));
+        }
+        return lines;
+    }
+
+    private static int longestCommonSubsequence(final List<String> a, final List<String> b) {
+        final int[][] lengths = new int[a.size() + 1][b.size() + 1];
+        for (int i = 1; i <= a.size(); i++) {
+            for (int j = 1; j <= b.size(); j++) {
+                lengths[i][j] = a.get(i - 1).equals(b.get(j - 1))
+                    ? lengths[i - 1][j - 1] + 1
+                    : Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+            }
+        }
+        return lengths[a.size()][b.size()];
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static com.github.writethemfirst.approvals.testutils.LineEndingsTestUtils.allContents;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NormalizedReaderTest {
+    @Test
+    void shouldNormalizeLineEndings() throws IOException {
+        final StringWriter writer = new StringWriter();
+
+        new NormalizedReader(new StringReader("a\r\nb\r\r\n\nc\r\n\r\n")).transferTo(writer);
+
+        assertThat(writer.toString()).isEqualTo("a\nb\r\n\nc");
+    }
+
+    @Test
+    void shouldCompareLikeStringUtils() throws IOException {
+        final List<String> contents = allContents(5);
+        for (final String expected : contents) {
+            for (final String actual : contents) {
+                final NormalizedReader expectedReader = new NormalizedReader(new StringReader(expected));
+                final NormalizedReader actualReader = new NormalizedReader(new StringReader(actual));
+                assertThat(expectedReader.sameContent(actualReader))
+                    .as("<%s> vs <%s>", expected, actual)
+                    .isEqualTo(StringUtils.sameContent(expected, actual));
+            }
+        }
+    }
+}
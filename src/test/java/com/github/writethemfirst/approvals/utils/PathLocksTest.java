@@ -0,0 +1,137 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static com.github.writethemfirst.approvals.utils.PathLocks.locking;
+import static java.nio.file.Paths.get;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathLocksTest {
+    private final Path approved = get("target", "PathLocksTest", "sample.approved");
+
+    @Test
+    void shouldBeReentrant() {
+        final String result = locking(approved, () -> locking(approved.getParent().resolve("sample.approved"), () -> "done"));
+
+        assertThat(result).isEqualTo("done");
+    }
+
+    @Test
+    void shouldLockFileForOtherJvms() throws Exception {
+        locking(approved, () -> assertLockFileLocked(approved));
+
+        try (final FileChannel channel = FileChannel.open(PathLocks.lockFileOf(approved), WRITE)) {
+            assertThat(channel.tryLock()).isNotNull();
+        }
+    }
+
+    @Test
+    void shouldLockFileOfAnotherPathOnTheSameStripe() {
+        final Path other = otherPath(candidate -> PathLocks.sameStripe(approved, candidate)
+            && !PathLocks.lockFileOf(approved).equals(PathLocks.lockFileOf(candidate)));
+
+        locking(approved, () -> locking(other, () -> assertLockFileLocked(other)));
+    }
+
+    @Test
+    void shouldNotWaitForLockTakenBeforeTheOneHeld() throws Exception {
+        final Path first = otherPath(candidate -> PathLocks.lockedBefore(candidate, approved));
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> locking(first, () -> {
+            locked.countDown();
+            await(release);
+        }));
+        holder.start();
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> locking(approved, () -> locking(first, () -> {
+            })))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Can't wait for the lock of <" + first + ">");
+        } finally {
+            release.countDown();
+            holder.join(10_000);
+        }
+        assertThat(locking(first, () -> locking(approved, () -> "done"))).isEqualTo("done");
+    }
+
+    @Test
+    void shouldCountContentions() throws Exception {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> locking(approved, () -> {
+            locked.countDown();
+            await(release);
+        }));
+        holder.start();
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+        final long contentions = PathLocks.contentions();
+
+        final Thread waiter = new Thread(() -> locking(approved, () -> {
+        }));
+        waiter.start();
+        Thread.sleep(100);
+        assertThat(waiter.isAlive()).isTrue();
+        release.countDown();
+        waiter.join(10_000);
+        holder.join(10_000);
+
+        assertThat(PathLocks.contentions()).isGreaterThan(contentions);
+    }
+
+    private Path otherPath(final Predicate<Path> condition) {
+        return IntStream.range(0, 100_000)
+            .mapToObj(index -> approved.resolveSibling("sample" + index + ".approved"))
+            .filter(condition)
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No path found"));
+    }
+
+    private static void assertLockFileLocked(final Path path) {
+        try (final FileChannel channel = FileChannel.open(PathLocks.lockFileOf(path), WRITE)) {
+            // the lock is held by this JVM, so another JVM couldn't acquire it either
+            assertThatThrownBy(channel::tryLock).isInstanceOf(OverlappingFileLockException.class);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProcessLauncherTest {
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final List<List<String>> started = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @Test
+    void shouldIgnoreCommandAlreadyRunning() throws Exception {
+        final ProcessLauncher launcher = new ProcessLauncher(4, this::start);
+
+        assertThat(launcher.launch(asList("meld", "a.received", "a.approved"))).isTrue();
+        assertThat(launcher.launch(asList("meld", "a.received", "a.approved"))).isFalse();
+        assertThat(launcher.launch(asList("meld", "b.received", "b.approved"))).isTrue();
+        closed.countDown();
+
+        assertThat(launcher.drain(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(started).containsExactlyInAnyOrder(
+            asList("meld", "a.received", "a.approved"),
+            asList("meld", "b.received", "b.approved"));
+    }
+
+    @Test
+    void shouldLimitProcessesRunningAtTheSameTime() throws Exception {
+        final ProcessLauncher launcher = new ProcessLauncher(2, this::start);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(launcher.launch(asList("meld", i + ".received", i + ".approved"))).isTrue();
+        }
+        Thread.sleep(100);
+        assertThat(started).hasSize(2);
+        closed.countDown();
+
+        assertThat(launcher.drain(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(started).hasSize(5);
+        assertThat(maxRunning).hasValue(2);
+    }
+
+    @Test
+    void shouldRunCommandInCallingThreadOnceDrained() throws Exception {
+        final ProcessLauncher launcher = new ProcessLauncher(2, this::start);
+        assertThat(launcher.drain(10, TimeUnit.SECONDS)).isTrue();
+        closed.countDown();
+
+        assertThat(launcher.launch(asList("meld", "a.received", "a.approved"))).isTrue();
+        assertThat(started).containsExactly(asList("meld", "a.received", "a.approved"));
+        assertThat(launcher.launch(asList("meld", "a.received", "a.approved"))).isTrue();
+        assertThat(started).hasSize(2);
+    }
+
+    @Test
+    void shouldDropWaitingCommandsOnceDrainTimedOut() throws Exception {
+        final ProcessLauncher launcher = new ProcessLauncher(1, this::start);
+        for (int i = 0; i < 3; i++) {
+            assertThat(launcher.launch(asList("meld", i + ".received", i + ".approved"))).isTrue();
+        }
+
+        assertThat(launcher.drain(100, TimeUnit.MILLISECONDS)).isFalse();
+        closed.countDown();
+        Thread.sleep(100);
+
+        assertThat(started).containsExactly(asList("meld", "0.received", "0.approved"));
+    }
+
+    private Process start(final List<String> command) {
+        started.add(command);
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        final Process process = mock(Process.class);
+        try {
+            when(process.waitFor()).then(invocation -> {
+                closed.await();
+                running.decrementAndGet();
+                return 0;
+            });
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return process;
+    }
+}
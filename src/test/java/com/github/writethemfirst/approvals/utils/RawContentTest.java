@@ -0,0 +1,102 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.Charset.defaultCharset;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RawContentTest {
+    @Test
+    void shouldNormalizeLineEndingsAcrossWindows() throws IOException {
+        final String content = "a\r\nb\r\r\n\nc\r\n\r\n";
+        final Path file = Files.createTempFile("raw", ".txt");
+        Files.write(file, content.getBytes());
+        try {
+            for (int windowSize = 1; windowSize <= content.length(); windowSize++) {
+                final StringWriter writer = new StringWriter();
+                try (final NormalizedReader reader = new NormalizedReader(new RawContent(file, windowSize))) {
+                    reader.transferTo(writer);
+                }
+                assertThat(writer.toString()).as("window of %s bytes", windowSize).isEqualTo("a\nb\r\n\nc");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void shouldCompareLikeReaders() throws IOException {
+        final Path empty = Files.createTempFile("raw", ".txt");
+        final Path lineEndings = Files.createTempFile("raw", ".txt");
+        Files.write(lineEndings, "\r\n\n".getBytes());
+        try (final NormalizedReader emptyContent = new NormalizedReader(new RawContent(empty, 2));
+             final NormalizedReader lineEndingsContent = new NormalizedReader(new RawContent(lineEndings, 2))) {
+            assertThat(emptyContent.sameContent(lineEndingsContent))
+                .isEqualTo(new NormalizedReader(new StringReader("")).sameContent(new NormalizedReader(new StringReader("\r\n\n"))))
+                .isFalse();
+        } finally {
+            Files.delete(empty);
+            Files.delete(lineEndings);
+        }
+    }
+
+    @Test
+    void shouldSeeDifferentMalformedBytesAsDifferent() throws IOException {
+        assumeTrue(defaultCharset().equals(UTF_8));
+        final Path first = Files.createTempFile("raw", ".txt");
+        final Path second = Files.createTempFile("raw", ".txt");
+        Files.write(first, new byte[]{'a', (byte) 0xFF});
+        Files.write(second, new byte[]{'a', (byte) 0xFE});
+        try (final NormalizedReader firstContent = new NormalizedReader(new RawContent(first));
+             final NormalizedReader secondContent = new NormalizedReader(new RawContent(second));
+             final NormalizedReader firstDecoded = new NormalizedReader(FileUtils.silentReader(first));
+             final NormalizedReader secondDecoded = new NormalizedReader(FileUtils.silentReader(second))) {
+            assertThat(firstDecoded.sameContent(secondDecoded)).isTrue();
+            assertThat(firstContent.sameContent(secondContent)).isFalse();
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    void shouldReleaseFileWhenClosed() throws IOException {
+        final Path file = Files.createTempFile("raw", ".txt");
+        final Path replacement = Files.createTempFile("raw", ".txt");
+        Files.write(file, "some content".getBytes());
+        try (final NormalizedReader content = new NormalizedReader(new RawContent(file, 4))) {
+            content.transferTo(new StringWriter());
+        }
+
+        Files.move(replacement, file, REPLACE_EXISTING);
+        Files.delete(file);
+
+        assertThat(file).doesNotExist();
+    }
+}
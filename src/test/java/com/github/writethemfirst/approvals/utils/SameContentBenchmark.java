@@ -0,0 +1,78 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.IntStream.range;
+
+/**
+ * Compares {@link StringUtils#sameContent(CharSequence, CharSequence)} with the former implementation, which split
+ * both contents on line endings before comparing the lines.
+ *
+ * Run it from the `main` method: the GC profiler is enabled, so the `gc.alloc.rate.norm` lines show the bytes
+ * allocated by each comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SameContentBenchmark {
+    @Param({"10", "1000", "100000"})
+    int lines;
+
+    private String expected;
+    private String actual;
+
+    @Setup
+    public void prepareContents() {
+        final StringBuilder builder = new StringBuilder();
+        range(0, lines).forEach(i -> builder.append("result ").append(i).append(" <== , arg").append(i).append('\n'));
+        expected = builder.toString();
+        actual = expected.replace("\n", "\r\n");
+    }
+
+    @Benchmark
+    public boolean legacySplitLines() {
+        final List<String> expectedElements = StringUtils.splitOnLineEndings(expected);
+        final List<String> actualElements = StringUtils.splitOnLineEndings(actual);
+        return expectedElements.size() == actualElements.size() &&
+            range(0, expectedElements.size()).allMatch(i -> expectedElements.get(i).equals(actualElements.get(i)));
+    }
+
+    @Benchmark
+    public boolean sameContent() {
+        return StringUtils.sameContent(expected, actual);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SameContentBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.lang.Thread.currentThread;
+import static java.util.Arrays.stream;
+
+/**
+ * Compares the caller resolution of {@link StackUtils} (single lazy walk) with the former implementation, which
+ * captured the full stack trace twice (once for the class, once for the method).
+ *
+ * The `depth` parameter adds frames below the calling method, to simulate deep JUnit or Spring stacks.
+ *
+ * Run it from the IDE, or with `mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.writethemfirst.approvals.utils.StackUtilsBenchmark`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackUtilsBenchmark {
+    @Param({"10", "100", "300"})
+    int depth;
+
+    @Benchmark
+    public void legacyClassThenMethod(final Blackhole blackhole) {
+        blackhole.consume(belowFrames(depth, () -> {
+            final String className = LegacyStackUtils.callerClass(StackUtilsBenchmark.class);
+            return LegacyStackUtils.callerMethod(className);
+        }));
+    }
+
+    @Benchmark
+    public void classThenMethod(final Blackhole blackhole) {
+        blackhole.consume(belowFrames(depth, () -> {
+            final String className = StackUtils.callerClass(StackUtilsBenchmark.class);
+            return StackUtils.callerMethod(className);
+        }));
+    }
+
+    @Benchmark
+    public void singleWalk(final Blackhole blackhole) {
+        blackhole.consume(belowFrames(depth, () -> StackUtils.caller(StackUtilsBenchmark.class).methodName()));
+    }
+
+    private static Object belowFrames(final int depth, final Supplier<Object> call) {
+        return depth == 0 ? Caller.call(call) : belowFrames(depth - 1, call);
+    }
+
+    static class Caller {
+        static Object call(final Supplier<Object> call) {
+            return call.get();
+        }
+    }
+
+    /**
+     * Former implementation of the caller resolution, kept as a baseline.
+     */
+    static class LegacyStackUtils {
+        static String callerClass(final Class<?>... potentialReferenceClasses) {
+            final List<String> classesInStack = stream(currentThread().getStackTrace())
+                .map(StackTraceElement::getClassName)
+                .distinct()
+                .collect(Collectors.toList());
+            final ArrayList<String> reversedStack = new ArrayList<>(classesInStack);
+            Collections.reverse(reversedStack);
+            final Optional<String> lastReferenceName = reversedStack.stream()
+                .filter(className -> stream(potentialReferenceClasses).anyMatch(
+                    referenceClass -> className.equals(referenceClass.getName())))
+                .findFirst();
+            return lastReferenceName
+                .map(name -> classesInStack.get(classesInStack.indexOf(name) + 1))
+                .orElse("");
+        }
+
+        static Optional<String> callerMethod(final String referenceClassName) {
+            return stream(currentThread().getStackTrace())
+                .filter(e -> e.getClassName().equals(referenceClassName))
+                .filter(e -> !e.getMethodName().startsWith("lambda$"))
+                .map(StackTraceElement::getMethodName)
+                .findFirst();
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StackUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
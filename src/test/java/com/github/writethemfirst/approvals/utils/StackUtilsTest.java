@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.stream.Stream;
 
+import static com.github.writethemfirst.approvals.utils.StackUtils.caller;
 import static com.github.writethemfirst.approvals.utils.StackUtils.callerClass;
 import static com.github.writethemfirst.approvals.utils.StackUtils.callerMethod;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -60,4 +61,23 @@ class StackUtilsTest {
         Stream.of("whatever")
             .forEach(s -> assertThat(callerMethod(getClass().getName())).contains("methodNameShouldNotBeLambda"));
     }
+
+    @Test
+    void callerShouldHoldBothClassAndMethod() {
+        final StackUtils.Caller caller = caller(StackUtils.class);
+
+        assertThat(caller.className).isEqualTo(getClass().getName());
+        assertThat(caller.methodName()).contains("callerShouldHoldBothClassAndMethod");
+    }
+
+    @Test
+    void callerMethodShouldNotBeLambda() {
+        Stream.of("whatever")
+            .forEach(s -> assertThat(caller(StackUtils.class).methodName()).contains("callerMethodShouldNotBeLambda"));
+    }
+
+    @Test
+    void callerClassShouldBeEmptyWhenNoReferenceClassInStack() {
+        assertThat(callerClass(String.class)).isEmpty();
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Approvals-Java - Approval testing library for Java. Alleviates the burden of hand-writing assertions.
+ * Copyright © 2018 Write Them First!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.writethemfirst.approvals.utils;
+
+import com.github.writethemfirst.approvals.Reporter;
+import com.github.writethemfirst.approvals.approvers.Approver;
+import com.github.writethemfirst.approvals.testutils.SimpleTestUtils;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the Java 11 version of {@link FlightEvents}, only run by the `test-java11` execution of the build.
+ */
+class FlightEventsRecordingTest {
+    private static final String VERIFICATION = "com.github.writethemfirst.approvals.Verification";
+    private static final String FILE_WRITE = "com.github.writethemfirst.approvals.FileWrite";
+
+    private final Approver approver = new Approver().reportTo(mock(Reporter.class));
+
+    @Test
+    void shouldRecordVerificationEvents() throws IOException {
+        final SimpleTestUtils testUtils = new SimpleTestUtils("shouldRecordVerificationEvents", getClass());
+        testUtils.writeApproved("some text");
+        final Path dump = Files.createTempFile("approvals", ".jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable(VERIFICATION);
+            recording.enable(FILE_WRITE);
+            recording.start();
+
+            approver.verify("some text");
+            assertThatThrownBy(() -> approver.verify("other text")).isInstanceOf(AssertionError.class);
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        final List<RecordedEvent> verifications = eventsOf(dump, VERIFICATION, testUtils.approved);
+        assertThat(verifications).hasSize(2);
+        assertEvent(verifications.get(0), 9, 9, "matched");
+        assertEvent(verifications.get(1), 9, 10, "mismatched");
+        final List<RecordedEvent> writes = eventsOf(dump, FILE_WRITE, testUtils.received);
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0).getLong("actualSize")).isEqualTo(10);
+        assertThat(writes.get(0).getString("outcome")).isEqualTo("written");
+        assertThat(FlightEvents.verification()).isSameAs(FlightEvents.NONE);
+        Files.delete(dump);
+        testUtils.cleanupPaths();
+    }
+
+    private static List<RecordedEvent> eventsOf(final Path dump, final String name, final Path path) throws IOException {
+        return RecordingFile.readAllEvents(dump).stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .filter(event -> path.toString().equals(event.getString("path")))
+            .sorted((first, second) -> first.getStartTime().compareTo(second.getStartTime()))
+            .collect(toList());
+    }
+
+    private static void assertEvent(final RecordedEvent event, final long approvedSize, final long actualSize,
+                                    final String outcome) {
+        assertThat(event.getLong("approvedSize")).isEqualTo(approvedSize);
+        assertThat(event.getLong("actualSize")).isEqualTo(actualSize);
+        assertThat(event.getString("outcome")).isEqualTo(outcome);
+    }
+}